@@ -2,8 +2,10 @@ package com.farmchainx;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class FarmChainXApplication {
     public static void main(String[] args) {
         SpringApplication.run(FarmChainXApplication.class, args);
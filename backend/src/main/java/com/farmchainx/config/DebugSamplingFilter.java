@@ -0,0 +1,37 @@
+package com.farmchainx.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes one in every {@code rate} DEBUG and TRACE events per logger, so turning debug on for a hot path writes
+ * a steady sample instead of flooding the log buffer. INFO and above, and loggers not enabled for the level,
+ * are left to the normal level check.
+ */
+public class DebugSamplingFilter extends TurboFilter {
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private int rate = 100;
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // A null format is an isDebugEnabled() check, which must not use up a sample
+        if (rate <= 1 || level == null || format == null || level.isGreaterOrEqual(Level.INFO)
+                || level.toInt() < logger.getEffectiveLevel().toInt()) {
+            return FilterReply.NEUTRAL;
+        }
+        long seen = counters.computeIfAbsent(logger.getName(), name -> new AtomicLong()).getAndIncrement();
+        return seen % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,22 @@
+package com.farmchainx.config;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import net.logstash.logback.appender.listener.AppenderListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Attached to the async appender in logback-spring.xml; exported as farmchainx.logging.dropped
+public class DroppedLogEventCounter implements AppenderListener<ILoggingEvent> {
+
+    private static final LongAdder DROPPED = new LongAdder();
+
+    public static long dropped() {
+        return DROPPED.sum();
+    }
+
+    @Override
+    public void eventAppendFailed(Appender<ILoggingEvent> appender, ILoggingEvent event, Throwable reason) {
+        DROPPED.increment();
+    }
+}
@@ -0,0 +1,41 @@
+package com.farmchainx.config;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+@Configuration
+public class MetricsConfig {
+
+    // Set by AuthTokenFilter once a token is verified; requests without one are tagged ANONYMOUS
+    public static final String ROLE_ATTRIBUTE = MetricsConfig.class.getName() + ".role";
+    private static final String ANONYMOUS = "ANONYMOUS";
+
+    /**
+     * Adds the caller's role to the http.server.requests timer, next to the route template, method and status
+     * Spring MVC already tags it with.
+     */
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object role = context.getCarrier().getAttribute(ROLE_ATTRIBUTE);
+                return super.getLowCardinalityKeyValues(context).and("role", role != null ? role.toString() : ANONYMOUS);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder droppedLogEventsMetric() {
+        return registry -> FunctionCounter.builder("farmchainx.logging.dropped", DroppedLogEventCounter.class,
+                        counter -> DroppedLogEventCounter.dropped())
+                .description("Log events dropped because the async log buffer was full")
+                .register(registry);
+    }
+}
@@ -0,0 +1,102 @@
+package com.farmchainx.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps the application's DataSource so every statement prepared on one of its connections counts towards the
+ * current QueryCounter scope, whether Hibernate, a stateless session or JdbcTemplate issues it. A statement counts
+ * once however many times it is executed, so a JDBC batch is one statement; the time of each execution is added.
+ */
+@Component
+public class QueryCountDataSource implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)
+                ? new CountingDataSource(dataSource)
+                : bean;
+    }
+
+    private static final class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+    }
+
+    private static Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> counted(Statement.class, (Statement) result);
+                case "prepareStatement" -> counted(PreparedStatement.class, (PreparedStatement) result);
+                case "prepareCall" -> counted(CallableStatement.class, (CallableStatement) result);
+                default -> result;
+            };
+        });
+    }
+
+    private static <S extends Statement> S counted(Class<S> type, S statement) {
+        if (type != Statement.class) {
+            QueryCounter.statementPrepared();
+        }
+        return proxy(type, statement, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            // A plain Statement is prepared by the SQL it executes
+            if (type == Statement.class && args != null && args.length > 0) {
+                QueryCounter.statementPrepared();
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                QueryCounter.statementExecuted(System.nanoTime() - start);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(QueryCountDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    // unwrap and isWrapperFor reach the driver's own object, as pools expect
+                    case "unwrap", "isWrapperFor" -> invoke(target, method, args);
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> handler.invoke(proxy, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.farmchainx.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Counts the SQL statements and JDBC time of each request, including the security filter chain's user lookups,
+ * and logs requests over either threshold so an N+1 shows up in the log the first time it runs.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class QueryCountFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    @Value("${farmchainx.query-guard.max-statements:20}")
+    private int maxStatements;
+
+    @Value("${farmchainx.query-guard.max-jdbc-time:PT0.2S}")
+    private Duration maxJdbcTime;
+
+    // Debug aid: statements issued before the response was committed, as a header
+    @Value("${farmchainx.query-guard.header:false}")
+    private boolean header;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter.Scope scope = QueryCounter.open();
+        HttpServletResponse target = header ? new OnCommittedResponseWrapper(response) {
+            @Override
+            protected void onResponseCommitted() {
+                setHeader(QUERY_COUNT_HEADER, Integer.toString(scope.statements()));
+            }
+        } : response;
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            QueryCounter.close(scope);
+        }
+
+        if (header && !response.isCommitted()) {
+            response.setHeader(QUERY_COUNT_HEADER, Integer.toString(scope.statements()));
+        }
+        QueryCounter.Snapshot queries = scope.snapshot();
+        if (queries.statements() > maxStatements || queries.jdbcNanos() > maxJdbcTime.toNanos()) {
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            logger.warn("{} {} issued {} SQL statements taking {} ms of JDBC time (limits {} statements, {} ms)",
+                    request.getMethod(), route != null ? route : request.getRequestURI(), queries.statements(),
+                    queries.jdbcTime().toMillis(), maxStatements, maxJdbcTime.toMillis());
+        }
+    }
+}
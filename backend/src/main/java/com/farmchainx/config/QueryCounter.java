@@ -0,0 +1,94 @@
+package com.farmchainx.config;
+
+import java.time.Duration;
+
+/**
+ * Counts the SQL statements prepared on the current thread, by Hibernate or through JdbcTemplate, and the time JDBC
+ * spends executing them, between open and close of a scope. QueryCountDataSource reports them. QueryCountFilter opens one per request; tests can wrap any call in
+ * {@link #measure} to assert an exact count:
+ *
+ * <pre>
+ * QueryCounter.Snapshot queries = QueryCounter.measure(() -> mockMvc.perform(get("/crops")));
+ * assertEquals(2, queries.statements());
+ * </pre>
+ *
+ * Scopes nest, and an inner scope's counts are added to the enclosing one when it closes. Statements issued on
+ * other threads, such as the custody ledger writer's, are not seen.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    @FunctionalInterface
+    public interface Work<E extends Exception> {
+        void run() throws E;
+    }
+
+    public record Snapshot(int statements, long jdbcNanos) {
+        public Duration jdbcTime() {
+            return Duration.ofNanos(jdbcNanos);
+        }
+    }
+
+    public static <E extends Exception> Snapshot measure(Work<E> work) throws E {
+        Scope scope = open();
+        try {
+            work.run();
+        } finally {
+            close(scope);
+        }
+        return scope.snapshot();
+    }
+
+    static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void close(Scope scope) {
+        if (scope.parent != null) {
+            scope.parent.statements += scope.statements;
+            scope.parent.jdbcNanos += scope.jdbcNanos;
+            CURRENT.set(scope.parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    static void statementPrepared() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.statements++;
+        }
+    }
+
+    static void statementExecuted(long nanos) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.jdbcNanos += nanos;
+        }
+    }
+
+    // Only touched by the thread that opened it
+    static final class Scope {
+        private final Scope parent;
+        private int statements;
+        private long jdbcNanos;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        int statements() {
+            return statements;
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(statements, jdbcNanos);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.farmchainx.config;
 
+import com.farmchainx.controller.CropController;
 import com.farmchainx.security.AuthEntryPointJwt;
 import com.farmchainx.security.AuthTokenFilter;
+import com.farmchainx.service.IdempotencyService;
 import com.farmchainx.service.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -34,6 +38,12 @@ public class WebSecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:8081}")
+    private int managementPort;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
@@ -57,6 +67,19 @@ public class WebSecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    // Actuator endpoints, Prometheus scrapes included, are served only on the management port, which is kept off the
+    // public network; a scraper has no user token
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementFilterChain(HttpSecurity http) throws Exception {
+        http.securityMatcher(request -> managementPort != serverPort && request.getLocalPort() == managementPort)
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -66,6 +89,8 @@ public class WebSecurityConfig {
                 .authorizeHttpRequests(auth ->
                         auth.requestMatchers("/auth/**").permitAll()
                                 .requestMatchers("/crops/scan/**").permitAll()
+                                .requestMatchers("/crops/trace/**").permitAll()
+                                .requestMatchers("/crops/provenance-key").permitAll()
                                 .anyRequest().authenticated()
                 );
 
@@ -79,8 +104,10 @@ public class WebSecurityConfig {
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOriginPatterns(Arrays.asList("*"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList(CropController.NEXT_CURSOR_HEADER, "ETag",
+                IdempotencyService.REPLAYED_HEADER, QueryCountFilter.QUERY_COUNT_HEADER, RequestIdFilter.REQUEST_ID_HEADER));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -68,4 +68,19 @@ public class AuthController {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
+
+    @PostMapping("/signout")
+    public ResponseEntity<?> signOutEverywhere() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof User user)) {
+            return ResponseEntity.badRequest().body("Error: Not signed in!");
+        }
+
+        try {
+            userService.revokeTokens(user.getId());
+            return ResponseEntity.ok().body("Signed out from all devices!");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -1,304 +1,676 @@
 package com.farmchainx.controller;
 
+import com.farmchainx.dto.*;
+import com.farmchainx.event.CropChangedEvent;
 import com.farmchainx.model.*;
 import com.farmchainx.repository.*;
+import com.farmchainx.service.CropBatchService;
+import com.farmchainx.service.CropExportService;
+import com.farmchainx.service.CropFactory;
+import com.farmchainx.service.CropSearchService;
+import com.farmchainx.service.CropUpdateService;
+import com.farmchainx.service.CustodyLedger;
+import com.farmchainx.service.CustodyTransferService;
+import com.farmchainx.service.ExpiryAlertListener;
+import com.farmchainx.service.ExpiryScheduler;
+import com.farmchainx.service.IdempotencyService;
+import com.farmchainx.service.ProvenanceService;
+import com.farmchainx.service.ProvenanceTokenService;
+import com.farmchainx.service.ScanService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/crops")
 public class CropController {
+    private static final Logger logger = LoggerFactory.getLogger(CropController.class);
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    @Value("${farmchainx.crops.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${farmchainx.crops.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${farmchainx.crops.batch.max-items:10000}")
+    private int maxBatchItems;
+
+    @Autowired
+    private CropProjectionRepository cropProjectionRepository;
+
+    @Autowired
+    private CropExportService cropExportService;
+
+    @Autowired
+    private CropFactory cropFactory;
+
+    @Autowired
+    private CropBatchService cropBatchService;
+
+    @Autowired
+    private CropUpdateService cropUpdateService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ScanService scanService;
+
+    @Autowired
+    private ProvenanceService provenanceService;
+
+    @Autowired
+    private CustodyTransferService custodyTransferService;
+
+    @Autowired
+    private CustodyLedger custodyLedger;
+
+    @Autowired
+    private ProvenanceTokenService provenanceTokenService;
+
+    @Autowired
+    private CropSearchService cropSearchService;
 
     @Autowired
-    private FarmerCropRepository farmerCropRepository;
+    private ExpiryScheduler expiryScheduler;
 
     @Autowired
-    private DistributorCropRepository distributorCropRepository;
+    private ExpiryAlertListener expiryAlertListener;
 
     @Autowired
-    private RetailerCropRepository retailerCropRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     @GetMapping
-    public ResponseEntity<?> getUserCrops() {
+    public ResponseEntity<?> getUserCrops(CropFilter filter,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(defaultValue = "false") boolean stream,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                          HttpServletResponse response, WebRequest webRequest) {
         try {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             User user = (User) auth.getPrincipal();
 
-            List<Map<String, Object>> crops = new ArrayList<>();
-
             if (user.getRole() == UserRole.FARMER) {
-                List<FarmerCrop> farmerCrops = farmerCropRepository.findByUser(user);
-                for (FarmerCrop crop : farmerCrops) {
-                    crops.add(convertFarmerCropToMap(crop));
-                }
+                Specification<FarmerCrop> spec = CropSpecifications.<FarmerCrop>ownedBy(user.getId())
+                        .and(CropSpecifications.matching(filter));
+                return listCrops(FarmerCrop.class, FarmerCropResponse.class, spec, cursor, limit, stream, accept, response, webRequest);
             } else if (user.getRole() == UserRole.DISTRIBUTOR) {
-                List<DistributorCrop> distributorCrops = distributorCropRepository.findByUser(user);
-                for (DistributorCrop crop : distributorCrops) {
-                    crops.add(convertDistributorCropToMap(crop));
-                }
+                Specification<DistributorCrop> spec = CropSpecifications.<DistributorCrop>ownedBy(user.getId())
+                        .and(CropSpecifications.matching(filter));
+                return listCrops(DistributorCrop.class, DistributorCropResponse.class, spec, cursor, limit, stream, accept, response, webRequest);
             } else if (user.getRole() == UserRole.RETAILER) {
-                List<RetailerCrop> retailerCrops = retailerCropRepository.findByUser(user);
-                for (RetailerCrop crop : retailerCrops) {
-                    crops.add(convertRetailerCropToMap(crop));
-                }
+                Specification<RetailerCrop> spec = CropSpecifications.<RetailerCrop>ownedBy(user.getId())
+                        .and(CropSpecifications.matching(filter));
+                return listCrops(RetailerCrop.class, RetailerCropResponse.class, spec, cursor, limit, stream, accept, response, webRequest);
             }
 
-            return ResponseEntity.ok(crops);
+            return ResponseEntity.ok(new ArrayList<>());
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.warn("Error fetching crops: {}", e.toString());
             return ResponseEntity.badRequest().body("Error fetching crops: " + e.getMessage());
         }
     }
 
     @PostMapping
-    public ResponseEntity<?> createCrop(@Valid @RequestBody Map<String, Object> cropData) {
+    public ResponseEntity<?> createCrop(@Valid @RequestBody Map<String, Object> cropData,
+                                        @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(currentUserId(), idempotencyKey, "POST /crops", cropData,
+                () -> saveCrop(cropData));
+    }
+
+    private ResponseEntity<?> saveCrop(Map<String, Object> cropData) {
         try {
-            System.out.println("Creating crop with data: " + cropData);
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             User user = (User) auth.getPrincipal();
-            System.out.println("User: " + user.getEmail() + ", Role: " + user.getRole());
 
             if (user.getRole() == UserRole.FARMER) {
-                FarmerCrop crop = new FarmerCrop();
-                crop.setUser(user);
-                crop.setName((String) cropData.get("name"));
-                crop.setCropType((String) cropData.get("cropType"));
-                crop.setHarvestDate(java.time.LocalDate.parse((String) cropData.get("harvestDate")));
-                crop.setExpiryDate(java.time.LocalDate.parse((String) cropData.get("expiryDate")));
-                crop.setSoilType((String) cropData.get("soilType"));
-                crop.setPesticidesUsed((String) cropData.get("pesticidesUsed"));
-                crop.setImageUrl((String) cropData.get("imageUrl"));
-                crop.setFarmerId(user.getFarmerId());
-                crop.setFarmerName(user.getName());
-                crop.setFarmerLocation(user.getLocation());
-
-                FarmerCrop savedCrop = farmerCropRepository.save(crop);
-                System.out.println("Farmer crop saved with ID: " + savedCrop.getId());
-                return ResponseEntity.ok(convertFarmerCropToMap(savedCrop));
+                FarmerCrop savedCrop = cropUpdateService.create(cropFactory.newFarmerCrop(user, cropData));
+                logger.debug("Farmer crop {} saved for user {}", savedCrop.getId(), user.getId());
+                publishChange(savedCrop, CropChangedEvent.Type.CREATED);
+                return ResponseEntity.ok(FarmerCropResponse.from(savedCrop));
 
             } else if (user.getRole() == UserRole.DISTRIBUTOR) {
-                DistributorCrop crop = new DistributorCrop();
-                crop.setUser(user);
-                crop.setName((String) cropData.get("name"));
-                crop.setCropType((String) cropData.get("cropType"));
-                crop.setHarvestDate(java.time.LocalDate.parse((String) cropData.get("harvestDate")));
-                crop.setExpiryDate(java.time.LocalDate.parse((String) cropData.get("expiryDate")));
-                crop.setSoilType((String) cropData.get("soilType"));
-                crop.setPesticidesUsed((String) cropData.get("pesticidesUsed"));
-                crop.setImageUrl((String) cropData.get("imageUrl"));
-                crop.setDistributorId(user.getDistributorId());
-                crop.setDistributorName(user.getName());
-                crop.setDistributorLocation(user.getLocation());
-
-                DistributorCrop savedCrop = distributorCropRepository.save(crop);
-                System.out.println("Distributor crop saved with ID: " + savedCrop.getId());
-                return ResponseEntity.ok(convertDistributorCropToMap(savedCrop));
+                DistributorCrop savedCrop = cropUpdateService.create(cropFactory.newDistributorCrop(user, cropData));
+                logger.debug("Distributor crop {} saved for user {}", savedCrop.getId(), user.getId());
+                publishChange(savedCrop, CropChangedEvent.Type.CREATED);
+                return ResponseEntity.ok(DistributorCropResponse.from(savedCrop));
 
             } else if (user.getRole() == UserRole.RETAILER) {
-                RetailerCrop crop = new RetailerCrop();
-                crop.setUser(user);
-                crop.setName((String) cropData.get("name"));
-                crop.setCropType((String) cropData.get("cropType"));
-                crop.setHarvestDate(java.time.LocalDate.parse((String) cropData.get("harvestDate")));
-                crop.setExpiryDate(java.time.LocalDate.parse((String) cropData.get("expiryDate")));
-                crop.setSoilType((String) cropData.get("soilType"));
-                crop.setPesticidesUsed((String) cropData.get("pesticidesUsed"));
-                crop.setImageUrl((String) cropData.get("imageUrl"));
-                crop.setRetailerName(user.getName());
-                crop.setRetailerLocationAddress(user.getLocation());
-
-                RetailerCrop savedCrop = retailerCropRepository.save(crop);
-                System.out.println("Retailer crop saved with ID: " + savedCrop.getId());
-                return ResponseEntity.ok(convertRetailerCropToMap(savedCrop));
+                RetailerCrop savedCrop = cropUpdateService.create(cropFactory.newRetailerCrop(user, cropData));
+                logger.debug("Retailer crop {} saved for user {}", savedCrop.getId(), user.getId());
+                publishChange(savedCrop, CropChangedEvent.Type.CREATED);
+                return ResponseEntity.ok(RetailerCropResponse.from(savedCrop));
             }
 
             return ResponseEntity.badRequest().body("Invalid user role for creating crops");
+        } catch (CustodyLedger.BacklogFullException e) {
+            return ledgerBacklogged(e);
         } catch (Exception e) {
-            System.err.println("Error creating crop: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("Error creating crop: {}", e.toString());
             return ResponseEntity.badRequest().body("Error creating crop: " + e.getMessage());
         }
     }
 
-    @PutMapping("/{id}")
-    public ResponseEntity<?> updateCrop(@PathVariable Long id, @Valid @RequestBody Map<String, Object> cropData) {
+    @PostMapping("/batch")
+    public ResponseEntity<?> createCrops(@RequestBody List<Map<String, Object>> crops,
+                                         @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(currentUserId(), idempotencyKey, "POST /crops/batch", crops,
+                () -> saveCrops(crops));
+    }
+
+    private ResponseEntity<?> saveCrops(List<Map<String, Object>> crops) {
         try {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             User user = (User) auth.getPrincipal();
 
-            if (user.getRole() == UserRole.FARMER) {
-                FarmerCrop crop = farmerCropRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Crop not found"));
+            return ResponseEntity.ok(cropBatchService.ingest(user, crops));
+        } catch (CustodyLedger.BacklogFullException e) {
+            return ledgerBacklogged(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error creating crops: " + e.getMessage());
+        }
+    }
 
-                crop.setName((String) cropData.get("name"));
-                crop.setCropType((String) cropData.get("cropType"));
-                crop.setHarvestDate(java.time.LocalDate.parse((String) cropData.get("harvestDate")));
-                crop.setExpiryDate(java.time.LocalDate.parse((String) cropData.get("expiryDate")));
-                crop.setSoilType((String) cropData.get("soilType"));
-                crop.setPesticidesUsed((String) cropData.get("pesticidesUsed"));
-                crop.setImageUrl((String) cropData.get("imageUrl"));
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateCrop(@PathVariable Long id, @Valid @RequestBody Map<String, Object> cropData,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(currentUserId(), idempotencyKey, "PUT /crops/" + id,
+                List.of(String.valueOf(ifMatch), cropData), () -> replaceCrop(id, cropData, ifMatch));
+    }
 
-                FarmerCrop updatedCrop = farmerCropRepository.save(crop);
-                return ResponseEntity.ok(convertFarmerCropToMap(updatedCrop));
+    private ResponseEntity<?> replaceCrop(Long id, Map<String, Object> cropData, String ifMatch) {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            User user = (User) auth.getPrincipal();
+            CustodyStage stage = CustodyStage.of(user.getRole());
+            Long expectedVersion = expectedVersion(ifMatch, cropData);
+            if (expectedVersion == null && !isWildcard(ifMatch)) {
+                return versionRequired();
+            }
 
-            } else if (user.getRole() == UserRole.DISTRIBUTOR) {
-                DistributorCrop crop = distributorCropRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Crop not found"));
+            CropUpdateService.Outcome outcome = cropUpdateService.replace(stage, id, user.getId(), expectedVersion, cropData);
+            if (outcome != CropUpdateService.Outcome.APPLIED) {
+                return rejected(outcome, stage, id);
+            }
+            eventPublisher.publishEvent(new CropChangedEvent(stage, id, CropChangedEvent.Type.UPDATED));
+            return current(HttpStatus.OK, stage, id);
+        } catch (CustodyLedger.BacklogFullException e) {
+            return ledgerBacklogged(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error updating crop: " + e.getMessage());
+        }
+    }
 
-                crop.setName((String) cropData.get("name"));
-                crop.setCropType((String) cropData.get("cropType"));
-                crop.setHarvestDate(java.time.LocalDate.parse((String) cropData.get("harvestDate")));
-                crop.setExpiryDate(java.time.LocalDate.parse((String) cropData.get("expiryDate")));
-                crop.setSoilType((String) cropData.get("soilType"));
-                crop.setPesticidesUsed((String) cropData.get("pesticidesUsed"));
-                crop.setImageUrl((String) cropData.get("imageUrl"));
+    // Sends only the changed fields; the body is returned only when asked for with Prefer: return=representation
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchCrop(@PathVariable Long id, @RequestBody Map<String, Object> changes,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                       @RequestHeader(value = "Prefer", required = false) String prefer,
+                                       @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(currentUserId(), idempotencyKey, "PATCH /crops/" + id,
+                List.of(String.valueOf(ifMatch), String.valueOf(prefer), changes),
+                () -> applyPatch(id, changes, ifMatch, prefer));
+    }
 
-                DistributorCrop updatedCrop = distributorCropRepository.save(crop);
-                return ResponseEntity.ok(convertDistributorCropToMap(updatedCrop));
+    private ResponseEntity<?> applyPatch(Long id, Map<String, Object> changes, String ifMatch, String prefer) {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            User user = (User) auth.getPrincipal();
+            CustodyStage stage = CustodyStage.of(user.getRole());
+            Long expectedVersion = expectedVersion(ifMatch, changes);
+            if (expectedVersion == null && !isWildcard(ifMatch)) {
+                return versionRequired();
+            }
 
-            } else if (user.getRole() == UserRole.RETAILER) {
-                RetailerCrop crop = retailerCropRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Crop not found"));
-
-                crop.setName((String) cropData.get("name"));
-                crop.setCropType((String) cropData.get("cropType"));
-                crop.setHarvestDate(java.time.LocalDate.parse((String) cropData.get("harvestDate")));
-                crop.setExpiryDate(java.time.LocalDate.parse((String) cropData.get("expiryDate")));
-                crop.setSoilType((String) cropData.get("soilType"));
-                crop.setPesticidesUsed((String) cropData.get("pesticidesUsed"));
-                crop.setImageUrl((String) cropData.get("imageUrl"));
-
-                RetailerCrop updatedCrop = retailerCropRepository.save(crop);
-                return ResponseEntity.ok(convertRetailerCropToMap(updatedCrop));
+            CropUpdateService.Outcome outcome = cropUpdateService.patch(stage, id, user.getId(), expectedVersion, changes);
+            if (outcome != CropUpdateService.Outcome.APPLIED) {
+                return rejected(outcome, stage, id);
             }
+            eventPublisher.publishEvent(new CropChangedEvent(stage, id, CropChangedEvent.Type.UPDATED));
 
-            return ResponseEntity.badRequest().body("Invalid user role");
+            if (prefer != null && prefer.contains("return=representation")) {
+                return current(HttpStatus.OK, stage, id);
+            }
+            return ResponseEntity.noContent().build();
+        } catch (CustodyLedger.BacklogFullException e) {
+            return ledgerBacklogged(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error updating crop: " + e.getMessage());
         }
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteCrop(@PathVariable Long id) {
+    public ResponseEntity<?> deleteCrop(@PathVariable Long id,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(currentUserId(), idempotencyKey, "DELETE /crops/" + id,
+                String.valueOf(ifMatch), () -> removeCrop(id, ifMatch));
+    }
+
+    private ResponseEntity<?> removeCrop(Long id, String ifMatch) {
         try {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             User user = (User) auth.getPrincipal();
+            CustodyStage stage = CustodyStage.of(user.getRole());
 
-            if (user.getRole() == UserRole.FARMER) {
-                farmerCropRepository.deleteById(id);
-            } else if (user.getRole() == UserRole.DISTRIBUTOR) {
-                distributorCropRepository.deleteById(id);
-            } else if (user.getRole() == UserRole.RETAILER) {
-                retailerCropRepository.deleteById(id);
+            CropUpdateService.Outcome outcome = cropUpdateService.delete(stage, id, user.getId(),
+                    expectedVersion(ifMatch, null));
+            if (outcome != CropUpdateService.Outcome.APPLIED) {
+                return rejected(outcome, stage, id);
             }
-
+            eventPublisher.publishEvent(new CropChangedEvent(stage, id, CropChangedEvent.Type.DELETED));
             return ResponseEntity.ok().build();
+        } catch (CustodyLedger.BacklogFullException e) {
+            return ledgerBacklogged(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error deleting crop: " + e.getMessage());
         }
     }
 
-    @GetMapping("/farmer/{farmerId}")
-    public ResponseEntity<?> getCropsByFarmerId(@PathVariable String farmerId) {
+    // Sends the caller's lots to the next stage's user named by receiverEmail, who alone can then receive them
+    @PostMapping("/dispatch")
+    public ResponseEntity<?> dispatchCrops(@RequestBody Map<String, Object> dispatch,
+                                           @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        List<Long> lotIds;
+        try {
+            lotIds = ((List<?>) dispatch.get("lotIds")).stream().map(id -> Long.valueOf(String.valueOf(id))).toList();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body("Error dispatching crops: lotIds must be a list of lot ids");
+        }
+        return idempotencyService.execute(currentUserId(), idempotencyKey, "POST /crops/dispatch", dispatch,
+                () -> dispatchLots(String.valueOf(dispatch.get("receiverEmail")), lotIds));
+    }
+
+    private ResponseEntity<?> dispatchLots(String receiverEmail, List<Long> lotIds) {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            User user = (User) auth.getPrincipal();
+
+            return ResponseEntity.ok(custodyTransferService.dispatch(user, receiverEmail, lotIds));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error dispatching crops: " + e.getMessage());
+        }
+    }
+
+    // Receives an upstream lot into the caller's stage; the new record is copied from it, not typed in again
+    @PostMapping("/transfer")
+    public ResponseEntity<?> transferCrop(@RequestBody Map<String, Object> transfer,
+                                          @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        Long sourceId;
+        try {
+            sourceId = Long.valueOf(String.valueOf(transfer.get("sourceId")));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body("Error transferring crops: sourceId must be a lot id");
+        }
+        return idempotencyService.execute(currentUserId(), idempotencyKey, "POST /crops/transfer", transfer,
+                () -> receiveLots(List.of(sourceId)));
+    }
+
+    // A whole delivery in one call: every lot is handed over or none is
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<?> transferCrops(@RequestBody List<Long> sourceIds,
+                                           @RequestHeader(value = IdempotencyService.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(currentUserId(), idempotencyKey, "POST /crops/transfer/batch", sourceIds,
+                () -> receiveLots(sourceIds));
+    }
+
+    private ResponseEntity<?> receiveLots(List<Long> sourceIds) {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            User user = (User) auth.getPrincipal();
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(custodyTransferService.receive(user, sourceIds));
+        } catch (CustodyLedger.BacklogFullException e) {
+            return ledgerBacklogged(e);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error transferring crops: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error transferring crops: " + e.getMessage());
+        }
+    }
+
+    // Ranked free-text search across every stage, served from the in-memory index
+    @GetMapping("/search")
+    public ResponseEntity<?> searchCrops(@RequestParam("q") String query,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(cropSearchService.search(query, page, pageSize(size)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error searching crops: " + e.getMessage());
+        }
+    }
+
+    // The caller's stock, first-expired-first-out
+    @GetMapping("/fefo")
+    public ResponseEntity<?> pickList(@RequestParam(required = false) Integer limit) {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            User user = (User) auth.getPrincipal();
+
+            return ResponseEntity.ok(expiryScheduler.pickList(user.getId(), pageSize(limit)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error building pick list: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/expiring")
+    public ResponseEntity<?> expiringCrops(@RequestParam(defaultValue = "3") int days,
+                                           @RequestParam(required = false) Integer limit) {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            User user = (User) auth.getPrincipal();
+
+            return ResponseEntity.ok(expiryScheduler.expiringWithin(user.getId(), days, pageSize(limit)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error fetching expiring crops: " + e.getMessage());
+        }
+    }
+
+    // Expiring-soon alerts delivered to the caller, newest first
+    @GetMapping("/expiring/alerts")
+    public ResponseEntity<?> expiryAlerts(@RequestParam(required = false) Integer limit) {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            User user = (User) auth.getPrincipal();
+
+            return ResponseEntity.ok(expiryAlertListener.recent(user.getId(), pageSize(limit)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error fetching expiry alerts: " + e.getMessage());
+        }
+    }
+
+    // QR labels name the record's stage as well as its id; ids are only unique within a stage
+    @GetMapping("/scan/{id}")
+    public ResponseEntity<?> scanCrop(@PathVariable Long id,
+                                      @RequestParam(required = false) CustodyStage stage,
+                                      WebRequest webRequest) {
+        if (stage == null) {
+            return ResponseEntity.badRequest().body("Error scanning crop: stage is required");
+        }
+        try {
+            Optional<TraceResponse> scan = scanService.scan(stage, id);
+            if (scan.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Crop not found");
+            }
+
+            String etag = scanTag(scan.get());
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(scan.get());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error scanning crop: " + e.getMessage());
+        }
+    }
+
+    // Latest ledger entry for a record with its Merkle path; 202 while its batch is still waiting to be sealed
+    @GetMapping("/scan/{id}/proof")
+    public ResponseEntity<?> proveCrop(@PathVariable Long id,
+                                       @RequestParam(defaultValue = "FARMER") CustodyStage stage) {
         try {
-            List<FarmerCrop> farmerCrops = farmerCropRepository.findByFarmerId(farmerId);
-            List<Map<String, Object>> crops = new ArrayList<>();
-            for (FarmerCrop crop : farmerCrops) {
-                crops.add(convertFarmerCropToMap(crop));
+            return custodyLedger.prove(stage, id)
+                    .<ResponseEntity<?>>map(proof -> ResponseEntity
+                            .status(proof.root() != null ? HttpStatus.OK : HttpStatus.ACCEPTED).body(proof))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("No custody events for crop"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error proving crop: " + e.getMessage());
+        }
+    }
+
+    // Signed label payload a scanner can check offline against /crops/provenance-key
+    @GetMapping("/scan/{id}/token")
+    public ResponseEntity<?> cropToken(@PathVariable Long id,
+                                       @RequestParam(required = false) CustodyStage stage) {
+        if (stage == null) {
+            return ResponseEntity.badRequest().body("Error issuing token: stage is required");
+        }
+        try {
+            return provenanceTokenService.token(stage, id)
+                    .<ResponseEntity<?>>map(token -> ResponseEntity.ok(new ProvenanceTokenResponse(stage, id, token)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Crop not found"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error issuing token: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/provenance-key")
+    public ResponseEntity<?> provenanceKey() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofHours(1)))
+                .body(provenanceTokenService.publicKey());
+    }
+
+    // Re-signs labels for lots after they change hands; defaults to the caller's own stage
+    @PostMapping("/tokens")
+    public ResponseEntity<?> reissueTokens(@RequestBody List<Long> ids,
+                                           @RequestParam(required = false) CustodyStage stage) {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            User user = (User) auth.getPrincipal();
+            if (ids.size() > maxBatchItems) {
+                return ResponseEntity.badRequest().body("Error issuing tokens: at most " + maxBatchItems + " ids per call");
             }
-            return ResponseEntity.ok(crops);
+
+            return ResponseEntity.ok(provenanceTokenService.reissue(
+                    stage != null ? stage : CustodyStage.of(user.getRole()), ids));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error issuing tokens: " + e.getMessage());
+        }
+    }
+
+    // Whole custody chain around one stage record, from the farm to any consumer purchases, in one call
+    @GetMapping("/trace/{id}")
+    public ResponseEntity<?> traceCrop(@PathVariable Long id,
+                                       @RequestParam(defaultValue = "FARMER") CustodyStage stage) {
+        try {
+            return provenanceService.trace(stage, id)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Crop not found"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error tracing crop: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/farmer/{farmerId}")
+    public ResponseEntity<?> getCropsByFarmerId(@PathVariable String farmerId, CropFilter filter,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer limit,
+                                                @RequestParam(defaultValue = "false") boolean stream,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                HttpServletResponse response, WebRequest webRequest) {
+        try {
+            Specification<FarmerCrop> spec = CropSpecifications.<FarmerCrop>hasFarmerId(farmerId)
+                    .and(CropSpecifications.matching(filter));
+            return listCrops(FarmerCrop.class, FarmerCropResponse.class, spec, cursor, limit, stream, accept, response, webRequest);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error fetching crops: " + e.getMessage());
         }
     }
 
     @GetMapping("/distributor/{distributorId}")
-    public ResponseEntity<?> getCropsByDistributorId(@PathVariable String distributorId) {
+    public ResponseEntity<?> getCropsByDistributorId(@PathVariable String distributorId, CropFilter filter,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(defaultValue = "false") boolean stream,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                     HttpServletResponse response, WebRequest webRequest) {
         try {
-            List<DistributorCrop> distributorCrops = distributorCropRepository.findByDistributorId(distributorId);
-            List<Map<String, Object>> crops = new ArrayList<>();
-            for (DistributorCrop crop : distributorCrops) {
-                crops.add(convertDistributorCropToMap(crop));
-            }
-            return ResponseEntity.ok(crops);
+            Specification<DistributorCrop> spec = CropSpecifications.<DistributorCrop>hasDistributorId(distributorId)
+                    .and(CropSpecifications.matching(filter));
+            return listCrops(DistributorCrop.class, DistributorCropResponse.class, spec, cursor, limit, stream, accept, response, webRequest);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error fetching crops: " + e.getMessage());
         }
     }
 
-    private Map<String, Object> convertFarmerCropToMap(FarmerCrop crop) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", crop.getId());
-        map.put("name", crop.getName());
-        map.put("cropType", crop.getCropType());
-        map.put("harvestDate", crop.getHarvestDate());
-        map.put("expiryDate", crop.getExpiryDate());
-        map.put("soilType", crop.getSoilType());
-        map.put("pesticidesUsed", crop.getPesticidesUsed());
-        map.put("imageUrl", crop.getImageUrl());
-        map.put("farmerId", crop.getFarmerId());
-        map.put("farmerName", crop.getFarmerName());
-        map.put("farmerLocation", crop.getFarmerLocation());
-        map.put("createdAt", crop.getCreatedAt());
-        return map;
-    }
-
-    private Map<String, Object> convertDistributorCropToMap(DistributorCrop crop) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", crop.getId());
-        map.put("name", crop.getName());
-        map.put("cropType", crop.getCropType());
-        map.put("harvestDate", crop.getHarvestDate());
-        map.put("expiryDate", crop.getExpiryDate());
-        map.put("soilType", crop.getSoilType());
-        map.put("pesticidesUsed", crop.getPesticidesUsed());
-        map.put("imageUrl", crop.getImageUrl());
-        map.put("farmerId", crop.getFarmerId());
-        map.put("farmerName", crop.getFarmerName());
-        map.put("farmerLocation", crop.getFarmerLocation());
-        map.put("distributorId", crop.getDistributorId());
-        map.put("distributorName", crop.getDistributorName());
-        map.put("distributorLocation", crop.getDistributorLocation());
-        map.put("distributorReceivedDate", crop.getDistributorReceivedDate());
-        map.put("sentToRetailer", crop.getSentToRetailer());
-        map.put("retailerLocation", crop.getRetailerLocation());
-        map.put("createdAt", crop.getCreatedAt());
-        return map;
-    }
-
-    private Map<String, Object> convertRetailerCropToMap(RetailerCrop crop) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", crop.getId());
-        map.put("name", crop.getName());
-        map.put("cropType", crop.getCropType());
-        map.put("harvestDate", crop.getHarvestDate());
-        map.put("expiryDate", crop.getExpiryDate());
-        map.put("soilType", crop.getSoilType());
-        map.put("pesticidesUsed", crop.getPesticidesUsed());
-        map.put("imageUrl", crop.getImageUrl());
-        map.put("farmerId", crop.getFarmerId());
-        map.put("farmerName", crop.getFarmerName());
-        map.put("farmerLocation", crop.getFarmerLocation());
-        map.put("distributorId", crop.getDistributorId());
-        map.put("distributorName", crop.getDistributorName());
-        map.put("distributorLocation", crop.getDistributorLocation());
-        map.put("distributorReceivedDate", crop.getDistributorReceivedDate());
-        map.put("retailerName", crop.getRetailerName());
-        map.put("retailerLocationAddress", crop.getRetailerLocationAddress());
-        map.put("retailerReceivedDate", crop.getRetailerReceivedDate());
-        map.put("receivedFromDistributor", crop.getReceivedFromDistributor());
-        map.put("createdAt", crop.getCreatedAt());
-        return map;
+    // Fetches one row past the page so we know whether another page exists without a COUNT query
+    private <E, R extends Record & CropResponse> ResponseEntity<?> listCrops(Class<E> entityType, Class<R> viewType,
+                                                                             Specification<E> spec, String cursor,
+                                                                             Integer limit, boolean stream, String accept,
+                                                                             HttpServletResponse response,
+                                                                             WebRequest webRequest) throws IOException {
+        if (stream || isNdjson(accept)) {
+            boolean ndjson = isNdjson(accept);
+            cropExportService.export(entityType, viewType, spec, streamResponse(response, ndjson), ndjson);
+            return null;
+        }
+
+        int pageSize = pageSize(limit);
+        CropCursor after = cursor != null ? CropCursor.decode(cursor) : null;
+        List<R> rows = cropProjectionRepository.findPage(entityType, viewType,
+                spec.and(CropSpecifications.after(after)), CropSpecifications.KEYSET_SORT, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<R> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String etag = pageETag(page, hasMore);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate());
+        if (hasMore) {
+            R last = page.get(page.size() - 1);
+            ok.header(NEXT_CURSOR_HEADER, new CropCursor(last.createdAt(), last.id()).encode());
+        }
+        return ok.body(page);
+    }
+
+    // Every write bumps a row's version, so the ids and versions on the page (and whether a next cursor follows)
+    // pin down the body; the stamp costs nothing beyond the page query itself
+    private static String pageETag(List<? extends CropResponse> page, boolean hasMore) {
+        long hash = 1;
+        for (CropResponse crop : page) {
+            hash = hash * 0x9E3779B97F4A7C15L + crop.id();
+            hash = hash * 0x9E3779B97F4A7C15L + (crop.version() != null ? crop.version() : -1);
+        }
+        return "\"" + Integer.toHexString(page.size()) + "-" + Long.toHexString(hash) + (hasMore ? "-m" : "") + "\"";
+    }
+
+    private static Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return ((User) auth.getPrincipal()).getId();
+    }
+
+    // A conflict answers with the crop as it is now, so the client can merge and retry with the new version
+    // Versions only grow and steps are only added, so the step count and version total never repeat for a chain
+    private static String scanTag(TraceResponse trace) {
+        long versions = 0;
+        Long version = null;
+        for (TraceResponse.Step step : trace.chain()) {
+            if (step.record() == null) {
+                continue;
+            }
+            versions += step.record().version();
+            if (step.stage() == trace.stage() && step.id().equals(trace.id())) {
+                version = step.record().version();
+            }
+        }
+        return "\"" + trace.stage().ordinal() + "-" + Long.toHexString(trace.id()) + "-" + Long.toHexString(version)
+                + "." + trace.chain().size() + "-" + Long.toHexString(versions) + "\"";
+    }
+
+    // The change was rolled back; it can be sent again once the ledger writer has caught up
+    private static ResponseEntity<?> ledgerBacklogged(CustodyLedger.BacklogFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(e.getMessage());
+    }
+
+    private ResponseEntity<?> rejected(CropUpdateService.Outcome outcome, CustodyStage stage, Long id) {
+        if (outcome == CropUpdateService.Outcome.CONFLICT) {
+            return current(HttpStatus.CONFLICT, stage, id);
+        }
+        if (outcome == CropUpdateService.Outcome.LINKED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Crop is part of a custody chain and cannot be deleted");
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Crop not found");
+    }
+
+    private ResponseEntity<?> current(HttpStatus status, CustodyStage stage, Long id) {
+        Optional<? extends CropResponse> crop = cropUpdateService.find(stage, id);
+        if (crop.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Crop not found");
+        }
+        return ResponseEntity.status(status)
+                .eTag("\"" + crop.get().version() + "\"")
+                .body(crop.get());
+    }
+
+    // An edit that names no version would silently overwrite whatever was saved since the caller read the crop;
+    // If-Match: * is the explicit way to do that
+    private static ResponseEntity<?> versionRequired() {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED)
+                .body("Crop version required: send If-Match or a version field");
+    }
+
+    private static boolean isWildcard(String ifMatch) {
+        return ifMatch != null && "*".equals(ifMatch.trim());
+    }
+
+    // Clients send the version they last read, either as If-Match or as a "version" field in the body
+    private static Long expectedVersion(String ifMatch, Map<String, Object> body) {
+        Object bodyVersion = body != null ? body.remove("version") : null;
+        if (ifMatch != null && !ifMatch.isBlank() && !isWildcard(ifMatch)) {
+            return Long.valueOf(ifMatch.trim().replaceFirst("^W/", "").replace("\"", ""));
+        }
+        return bodyVersion != null ? Long.valueOf(bodyVersion.toString()) : null;
+    }
+
+    private void publishChange(StageCrop crop, CropChangedEvent.Type type) {
+        eventPublisher.publishEvent(new CropChangedEvent(crop.getStage(), crop.getId(), type));
+    }
+
+    private boolean isNdjson(String accept) {
+        return accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+    }
+
+    // Streamed exports write straight to the servlet response, bypassing message converters
+    private OutputStream streamResponse(HttpServletResponse response, boolean ndjson) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        return response.getOutputStream();
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(limit, maxPageSize));
     }
 }
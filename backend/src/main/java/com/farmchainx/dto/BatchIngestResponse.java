@@ -0,0 +1,15 @@
+package com.farmchainx.dto;
+
+import java.util.List;
+
+public record BatchIngestResponse(
+        int received,
+        int inserted,
+        int failed,
+        List<ItemError> errors,
+        long elapsedMs,
+        double cropsPerSecond) {
+
+    public record ItemError(int index, String error) {
+    }
+}
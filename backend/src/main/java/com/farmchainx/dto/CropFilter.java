@@ -0,0 +1,72 @@
+package com.farmchainx.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+public class CropFilter {
+    private String cropType;
+
+    private String namePrefix;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate harvestFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate harvestTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate expiryFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate expiryTo;
+
+    // Getters and Setters
+    public String getCropType() {
+        return cropType;
+    }
+
+    public void setCropType(String cropType) {
+        this.cropType = cropType;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    public LocalDate getHarvestFrom() {
+        return harvestFrom;
+    }
+
+    public void setHarvestFrom(LocalDate harvestFrom) {
+        this.harvestFrom = harvestFrom;
+    }
+
+    public LocalDate getHarvestTo() {
+        return harvestTo;
+    }
+
+    public void setHarvestTo(LocalDate harvestTo) {
+        this.harvestTo = harvestTo;
+    }
+
+    public LocalDate getExpiryFrom() {
+        return expiryFrom;
+    }
+
+    public void setExpiryFrom(LocalDate expiryFrom) {
+        this.expiryFrom = expiryFrom;
+    }
+
+    public LocalDate getExpiryTo() {
+        return expiryTo;
+    }
+
+    public void setExpiryTo(LocalDate expiryTo) {
+        this.expiryTo = expiryTo;
+    }
+}
@@ -0,0 +1,30 @@
+package com.farmchainx.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Fields common to every stage's crop response. Component names of the implementing records match
+ * the entity attribute names, which is what CropProjectionRepository selects by.
+ */
+public interface CropResponse {
+    Long id();
+
+    String name();
+
+    String cropType();
+
+    LocalDate harvestDate();
+
+    LocalDate expiryDate();
+
+    String soilType();
+
+    String pesticidesUsed();
+
+    String farmerId();
+
+    LocalDateTime createdAt();
+
+    Long version();
+}
@@ -0,0 +1,15 @@
+package com.farmchainx.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Columns the search index reads from each crop stage table
+public record CropSearchDocument(
+        Long id,
+        String name,
+        String cropType,
+        String soilType,
+        String pesticidesUsed,
+        LocalDate expiryDate,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,25 @@
+package com.farmchainx.dto;
+
+import com.farmchainx.model.CustodyStage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record CropSearchResponse(
+        String query,
+        int total,
+        int page,
+        int size,
+        List<Hit> hits) {
+
+    public record Hit(
+            CustodyStage stage,
+            Long id,
+            double score,
+            String name,
+            String cropType,
+            String soilType,
+            String pesticidesUsed,
+            LocalDate expiryDate) {
+    }
+}
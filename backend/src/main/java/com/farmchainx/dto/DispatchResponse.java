@@ -0,0 +1,11 @@
+package com.farmchainx.dto;
+
+import com.farmchainx.model.CustodyStage;
+
+import java.util.List;
+
+public record DispatchResponse(
+        CustodyStage fromStage,
+        Long receiverId,
+        List<Long> lotIds) {
+}
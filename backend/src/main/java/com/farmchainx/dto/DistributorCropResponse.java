@@ -0,0 +1,37 @@
+package com.farmchainx.dto;
+
+import com.farmchainx.model.DistributorCrop;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record DistributorCropResponse(
+        Long id,
+        String name,
+        String cropType,
+        LocalDate harvestDate,
+        LocalDate expiryDate,
+        String soilType,
+        String pesticidesUsed,
+        String imageUrl,
+        String farmerId,
+        String farmerName,
+        String farmerLocation,
+        String distributorId,
+        String distributorName,
+        String distributorLocation,
+        LocalDate distributorReceivedDate,
+        String sentToRetailer,
+        String retailerLocation,
+        LocalDateTime createdAt,
+        Long version) implements CropResponse {
+
+    public static DistributorCropResponse from(DistributorCrop crop) {
+        return new DistributorCropResponse(crop.getId(), crop.getName(), crop.getCropType(),
+                crop.getHarvestDate(), crop.getExpiryDate(), crop.getSoilType(), crop.getPesticidesUsed(),
+                crop.getImageUrl(), crop.getFarmerId(), crop.getFarmerName(), crop.getFarmerLocation(),
+                crop.getDistributorId(), crop.getDistributorName(), crop.getDistributorLocation(),
+                crop.getDistributorReceivedDate(), crop.getSentToRetailer(), crop.getRetailerLocation(),
+                crop.getCreatedAt(), crop.getVersion());
+    }
+}
@@ -0,0 +1,18 @@
+package com.farmchainx.dto;
+
+import com.farmchainx.model.CustodyStage;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One lot from an expiring-soon alert, as delivered to its owner
+public record ExpiryAlert(
+        Long id,
+        CustodyStage stage,
+        Long lotId,
+        String name,
+        String cropType,
+        LocalDate expiryDate,
+        LocalDate horizon,
+        LocalDateTime alertedAt) {
+}
@@ -0,0 +1,25 @@
+package com.farmchainx.dto;
+
+import com.farmchainx.model.CustodyStage;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+// One lot in a distributor's or retailer's stock, ordered first-expired-first-out
+public record ExpiryLot(
+        CustodyStage stage,
+        Long id,
+        Long ownerId,
+        String name,
+        String cropType,
+        LocalDate expiryDate) implements Comparable<ExpiryLot> {
+
+    private static final Comparator<ExpiryLot> FEFO = Comparator.comparing(ExpiryLot::expiryDate)
+            .thenComparing(ExpiryLot::stage)
+            .thenComparing(ExpiryLot::id);
+
+    @Override
+    public int compareTo(ExpiryLot other) {
+        return FEFO.compare(this, other);
+    }
+}
@@ -0,0 +1,29 @@
+package com.farmchainx.dto;
+
+import com.farmchainx.model.FarmerCrop;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record FarmerCropResponse(
+        Long id,
+        String name,
+        String cropType,
+        LocalDate harvestDate,
+        LocalDate expiryDate,
+        String soilType,
+        String pesticidesUsed,
+        String imageUrl,
+        String farmerId,
+        String farmerName,
+        String farmerLocation,
+        LocalDateTime createdAt,
+        Long version) implements CropResponse {
+
+    public static FarmerCropResponse from(FarmerCrop crop) {
+        return new FarmerCropResponse(crop.getId(), crop.getName(), crop.getCropType(),
+                crop.getHarvestDate(), crop.getExpiryDate(), crop.getSoilType(), crop.getPesticidesUsed(),
+                crop.getImageUrl(), crop.getFarmerId(), crop.getFarmerName(), crop.getFarmerLocation(),
+                crop.getCreatedAt(), crop.getVersion());
+    }
+}
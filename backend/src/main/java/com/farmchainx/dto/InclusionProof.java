@@ -0,0 +1,42 @@
+package com.farmchainx.dto;
+
+import com.farmchainx.event.CropChangedEvent;
+import com.farmchainx.model.CustodyStage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Latest ledger event for one stage record and, once its batch is sealed, the Merkle path to the batch root.
+ *
+ * To verify: hash = sha256hex(prevHash|seq|stage|entityId|type|recordDigest|occurredAt), with an empty string
+ * for a null recordDigest and occurredAt exactly as serialized here. Then node = sha256(0x00 || bytes(hash)),
+ * and for each step in order node = sha256(0x01 || sibling || node) when side is LEFT, or
+ * sha256(0x01 || node || sibling) when RIGHT. The final node must equal root.
+ */
+public record InclusionProof(
+        Long seq,
+        CustodyStage stage,
+        Long entityId,
+        CropChangedEvent.Type type,
+        String recordDigest,
+        LocalDateTime occurredAt,
+        String prevHash,
+        String hash,
+        Long batchId,
+        Integer leafIndex,
+        Integer leafCount,
+        List<Step> path,
+        String root,
+        LocalDateTime sealedAt) {
+
+    public enum Side {
+        LEFT,
+        RIGHT
+    }
+
+    public record Step(
+            String sibling,
+            Side side) {
+    }
+}
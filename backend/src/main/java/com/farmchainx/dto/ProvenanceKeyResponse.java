@@ -0,0 +1,11 @@
+package com.farmchainx.dto;
+
+/**
+ * Public half of the provenance token signing key. publicKey is the base64 X.509 SubjectPublicKeyInfo encoding,
+ * which WebCrypto and the JDK import directly; keyId is the hex id embedded in every token signed with it.
+ */
+public record ProvenanceKeyResponse(
+        String algorithm,
+        String keyId,
+        String publicKey) {
+}
@@ -0,0 +1,9 @@
+package com.farmchainx.dto;
+
+import com.farmchainx.model.CustodyStage;
+
+public record ProvenanceTokenResponse(
+        CustodyStage stage,
+        Long id,
+        String token) {
+}
@@ -0,0 +1,40 @@
+package com.farmchainx.dto;
+
+import com.farmchainx.model.RetailerCrop;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record RetailerCropResponse(
+        Long id,
+        String name,
+        String cropType,
+        LocalDate harvestDate,
+        LocalDate expiryDate,
+        String soilType,
+        String pesticidesUsed,
+        String imageUrl,
+        String farmerId,
+        String farmerName,
+        String farmerLocation,
+        String distributorId,
+        String distributorName,
+        String distributorLocation,
+        LocalDate distributorReceivedDate,
+        String retailerName,
+        String retailerLocationAddress,
+        LocalDate retailerReceivedDate,
+        String receivedFromDistributor,
+        LocalDateTime createdAt,
+        Long version) implements CropResponse {
+
+    public static RetailerCropResponse from(RetailerCrop crop) {
+        return new RetailerCropResponse(crop.getId(), crop.getName(), crop.getCropType(),
+                crop.getHarvestDate(), crop.getExpiryDate(), crop.getSoilType(), crop.getPesticidesUsed(),
+                crop.getImageUrl(), crop.getFarmerId(), crop.getFarmerName(), crop.getFarmerLocation(),
+                crop.getDistributorId(), crop.getDistributorName(), crop.getDistributorLocation(),
+                crop.getDistributorReceivedDate(), crop.getRetailerName(), crop.getRetailerLocationAddress(),
+                crop.getRetailerReceivedDate(), crop.getReceivedFromDistributor(), crop.getCreatedAt(),
+                crop.getVersion());
+    }
+}
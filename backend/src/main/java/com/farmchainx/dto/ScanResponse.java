@@ -0,0 +1,84 @@
+package com.farmchainx.dto;
+
+import com.farmchainx.model.ConsumerPurchase;
+import com.farmchainx.model.CustodyStage;
+import com.farmchainx.model.DistributorCrop;
+import com.farmchainx.model.FarmerCrop;
+import com.farmchainx.model.RetailerCrop;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Farm-to-shelf view of one scanned crop. Each stage row already carries the upstream stakeholder details,
+ * so fields for stages the crop has not reached yet are null.
+ */
+public record ScanResponse(
+        Long id,
+        CustodyStage stage,
+        String name,
+        String cropType,
+        LocalDate harvestDate,
+        LocalDate expiryDate,
+        String soilType,
+        String pesticidesUsed,
+        String imageUrl,
+        String farmerId,
+        String farmerName,
+        String farmerLocation,
+        String distributorId,
+        String distributorName,
+        String distributorLocation,
+        LocalDate distributorReceivedDate,
+        String sentToRetailer,
+        String retailerLocation,
+        String retailerName,
+        String retailerLocationAddress,
+        LocalDate retailerReceivedDate,
+        String receivedFromDistributor,
+        LocalDate purchaseDate,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long version) {
+
+    public static ScanResponse from(FarmerCrop crop) {
+        return new ScanResponse(crop.getId(), CustodyStage.FARMER, crop.getName(), crop.getCropType(),
+                crop.getHarvestDate(), crop.getExpiryDate(), crop.getSoilType(), crop.getPesticidesUsed(),
+                crop.getImageUrl(), crop.getFarmerId(), crop.getFarmerName(), crop.getFarmerLocation(),
+                null, null, null, null, null, null,
+                null, null, null, null, null,
+                crop.getCreatedAt(), crop.getUpdatedAt(), crop.getVersion());
+    }
+
+    public static ScanResponse from(DistributorCrop crop) {
+        return new ScanResponse(crop.getId(), CustodyStage.DISTRIBUTOR, crop.getName(), crop.getCropType(),
+                crop.getHarvestDate(), crop.getExpiryDate(), crop.getSoilType(), crop.getPesticidesUsed(),
+                crop.getImageUrl(), crop.getFarmerId(), crop.getFarmerName(), crop.getFarmerLocation(),
+                crop.getDistributorId(), crop.getDistributorName(), crop.getDistributorLocation(),
+                crop.getDistributorReceivedDate(), crop.getSentToRetailer(), crop.getRetailerLocation(),
+                null, null, null, null, null,
+                crop.getCreatedAt(), crop.getUpdatedAt(), crop.getVersion());
+    }
+
+    public static ScanResponse from(RetailerCrop crop) {
+        return new ScanResponse(crop.getId(), CustodyStage.RETAILER, crop.getName(), crop.getCropType(),
+                crop.getHarvestDate(), crop.getExpiryDate(), crop.getSoilType(), crop.getPesticidesUsed(),
+                crop.getImageUrl(), crop.getFarmerId(), crop.getFarmerName(), crop.getFarmerLocation(),
+                crop.getDistributorId(), crop.getDistributorName(), crop.getDistributorLocation(),
+                crop.getDistributorReceivedDate(), null, null,
+                crop.getRetailerName(), crop.getRetailerLocationAddress(), crop.getRetailerReceivedDate(),
+                crop.getReceivedFromDistributor(), null,
+                crop.getCreatedAt(), crop.getUpdatedAt(), crop.getVersion());
+    }
+
+    // The buying consumer is deliberately left out; only what the purchase says about the lot is exposed
+    public static ScanResponse from(ConsumerPurchase purchase) {
+        return new ScanResponse(purchase.getId(), CustodyStage.CONSUMER, purchase.getCropName(),
+                purchase.getCropType(), null, null, null, null,
+                null, purchase.getFarmerId(), purchase.getFarmerName(), null,
+                purchase.getDistributorId(), purchase.getDistributorName(), null, null, null, null,
+                purchase.getPurchasedFrom(), purchase.getRetailerLocation(), null, null,
+                purchase.getPurchaseDate(),
+                purchase.getCreatedAt(), purchase.getUpdatedAt(), purchase.getVersion());
+    }
+}
@@ -0,0 +1,24 @@
+package com.farmchainx.dto;
+
+import com.farmchainx.model.CustodyStage;
+
+import java.util.List;
+
+/**
+ * Custody chain around one stage record: its ancestors back to the farm, the record itself, then everything
+ * it was handed on to. Steps are ordered upstream to downstream and each names the step it came from.
+ */
+public record TraceResponse(
+        CustodyStage stage,
+        Long id,
+        List<Step> chain) {
+
+    // record is null when the stage row was deleted after the hand-over
+    public record Step(
+            CustodyStage stage,
+            Long id,
+            CustodyStage fromStage,
+            Long fromId,
+            ScanResponse record) {
+    }
+}
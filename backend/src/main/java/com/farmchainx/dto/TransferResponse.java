@@ -0,0 +1,16 @@
+package com.farmchainx.dto;
+
+import com.farmchainx.model.CustodyStage;
+
+import java.util.List;
+
+public record TransferResponse(
+        CustodyStage fromStage,
+        CustodyStage toStage,
+        List<Item> transfers) {
+
+    public record Item(
+            Long fromId,
+            Long toId) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.farmchainx.event;
+
+import com.farmchainx.model.CustodyStage;
+
+/**
+ * Published after a stage crop row has been created, updated or deleted, so caches and indexes can follow.
+ * A record created by a hand-over names the upstream lot it came from. Changes made on other instances are
+ * published by CustodyEventFeed, without the upstream lot.
+ */
+public record CropChangedEvent(CustodyStage stage, Long id, Type type, CustodyStage fromStage, Long fromId) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public CropChangedEvent(CustodyStage stage, Long id, Type type) {
+        this(stage, id, type, null, null);
+    }
+}
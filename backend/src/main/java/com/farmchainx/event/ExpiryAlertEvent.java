@@ -0,0 +1,13 @@
+package com.farmchainx.event;
+
+import com.farmchainx.dto.ExpiryLot;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Published once per owner and alert run with every lot of theirs that has come within the alert horizon
+ * since the previous run, earliest expiry first.
+ */
+public record ExpiryAlertEvent(Long ownerId, LocalDate horizon, List<ExpiryLot> lots) {
+}
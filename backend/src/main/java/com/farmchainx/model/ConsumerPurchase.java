@@ -10,8 +10,11 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "consumer_purchases")
 public class ConsumerPurchase {
+    // Pooled like the stage crop tables, so custody transfers can take ids before their INSERT ... SELECT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "consumer_purchase_ids")
+    @TableGenerator(name = "consumer_purchase_ids", table = "id_generators", pkColumnName = "gen_name",
+            valueColumnName = "next_val", pkColumnValue = "consumer_purchases", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -58,6 +61,10 @@ public class ConsumerPurchase {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public ConsumerPurchase() {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
@@ -167,6 +174,14 @@ public class ConsumerPurchase {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
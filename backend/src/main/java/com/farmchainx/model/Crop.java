@@ -50,7 +50,7 @@ public class Crop {
     private User user;
 
     // Supply Chain Information
-    @Column(name = "farmer_id", length = 3)
+    @Column(name = "farmer_id", length = 10)
     private String farmerId;
 
     @Size(max = 100)
@@ -61,7 +61,7 @@ public class Crop {
     @Column(name = "farmer_location")
     private String farmerLocation;
 
-    @Column(name = "distributor_id", length = 3)
+    @Column(name = "distributor_id", length = 10)
     private String distributorId;
 
     @Size(max = 100)
@@ -104,6 +104,10 @@ public class Crop {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Constructors
     public Crop() {
         this.createdAt = LocalDateTime.now();
@@ -303,6 +307,14 @@ public class Crop {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
@@ -0,0 +1,99 @@
+package com.farmchainx.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One hand-over of a lot: the upstream stage record it came from and the downstream record it became.
+ * A downstream record comes from exactly one upstream lot. Farmer and distributor lots are handed over once,
+ * whole; a retailer lot can be bought by many consumers.
+ */
+@Entity
+@Table(name = "custody_links")
+public class CustodyLink {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_stage", length = 16, nullable = false)
+    private CustodyStage fromStage;
+
+    @Column(name = "from_id", nullable = false)
+    private Long fromId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_stage", length = 16, nullable = false)
+    private CustodyStage toStage;
+
+    @Column(name = "to_id", nullable = false)
+    private Long toId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public CustodyLink() {
+    }
+
+    public CustodyLink(CustodyStage fromStage, Long fromId, CustodyStage toStage, Long toId) {
+        this.fromStage = fromStage;
+        this.fromId = fromId;
+        this.toStage = toStage;
+        this.toId = toId;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public CustodyStage getFromStage() {
+        return fromStage;
+    }
+
+    public void setFromStage(CustodyStage fromStage) {
+        this.fromStage = fromStage;
+    }
+
+    public Long getFromId() {
+        return fromId;
+    }
+
+    public void setFromId(Long fromId) {
+        this.fromId = fromId;
+    }
+
+    public CustodyStage getToStage() {
+        return toStage;
+    }
+
+    public void setToStage(CustodyStage toStage) {
+        this.toStage = toStage;
+    }
+
+    public Long getToId() {
+        return toId;
+    }
+
+    public void setToId(Long toId) {
+        this.toId = toId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,18 @@
+package com.farmchainx.model;
+
+public enum CustodyStage {
+    FARMER,
+    DISTRIBUTOR,
+    RETAILER,
+    CONSUMER;
+
+    public static CustodyStage of(UserRole role) {
+        return switch (role) {
+            case FARMER -> FARMER;
+            case DISTRIBUTOR -> DISTRIBUTOR;
+            case RETAILER -> RETAILER;
+            case CONSUMER -> CONSUMER;
+            default -> throw new IllegalArgumentException("No custody stage for role " + role);
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.farmchainx.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A client-supplied Idempotency-Key and the response it produced. The key is stored as a fixed-length digest of
+ * the owner and the raw key; a row with no status yet marks a request that is still running, until its lease
+ * runs out.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyKey {
+    @Id
+    @Column(name = "key_hash", length = 43)
+    private String keyHash;
+
+    @Column(name = "request_hash", length = 43, nullable = false)
+    private String requestHash;
+
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(name = "response_body", length = 16777215)
+    private String responseBody;
+
+    // JSON object of the response headers worth replaying, such as ETag
+    @Column(name = "response_headers", length = 2048)
+    private String responseHeaders;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public IdempotencyKey() {
+    }
+
+    public IdempotencyKey(String keyHash, String requestHash, LocalDateTime createdAt, LocalDateTime expiresAt,
+                          LocalDateTime lockedUntil) {
+        this.keyHash = keyHash;
+        this.requestHash = requestHash;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+        this.lockedUntil = lockedUntil;
+    }
+
+    // Getters and Setters
+    public String getKeyHash() {
+        return keyHash;
+    }
+
+    public void setKeyHash(String keyHash) {
+        this.keyHash = keyHash;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public Integer getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(Integer statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    public String getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    public void setResponseHeaders(String responseHeaders) {
+        this.responseHeaders = responseHeaders;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
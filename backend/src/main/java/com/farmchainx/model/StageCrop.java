@@ -0,0 +1,33 @@
+package com.farmchainx.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Common view of the farmer, distributor and retailer crop rows
+public interface StageCrop {
+    CustodyStage getStage();
+
+    Long getId();
+
+    User getUser();
+
+    String getName();
+
+    String getCropType();
+
+    LocalDate getHarvestDate();
+
+    LocalDate getExpiryDate();
+
+    String getSoilType();
+
+    String getPesticidesUsed();
+
+    String getFarmerId();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getVersion();
+}
@@ -1,5 +1,6 @@
 package com.farmchainx.model;
 
+import com.farmchainx.service.UserCacheEvictionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -14,6 +15,7 @@ import java.util.Collections;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheEvictionListener.class)
 public class User implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -40,12 +42,15 @@ public class User implements UserDetails {
     @Column(length = 20)
     private UserRole role;
 
-    @Column(name = "farmer_id", length = 3, unique = true)
+    @Column(name = "farmer_id", length = 10, unique = true)
     private String farmerId;
 
-    @Column(name = "distributor_id", length = 3, unique = true)
+    @Column(name = "distributor_id", length = 10, unique = true)
     private String distributorId;
 
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -164,6 +169,14 @@ public class User implements UserDetails {
         this.distributorId = distributorId;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,91 @@
+package com.farmchainx.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.lang.reflect.RecordComponent;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Reads crop rows straight into immutable response records, selecting only the columns each record declares.
+ * Nothing is attached to the persistence context, so there is no entity hydration, lazy User proxy or
+ * dirty-checking snapshot per row.
+ */
+@Repository
+public class CropProjectionRepository {
+
+    // Rows pulled per round trip when streaming exports; MySQL needs useCursorFetch=true for this to apply
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final Map<Class<?>, String[]> COLUMNS = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <E, R extends Record> List<R> findPage(Class<E> entityType, Class<R> viewType,
+                                                  Specification<E> spec, Sort sort, int limit) {
+        return query(entityType, viewType, spec, sort)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public <E, R extends Record> List<R> findAll(Class<E> entityType, Class<R> viewType,
+                                                 Specification<E> spec, Sort sort) {
+        return query(entityType, viewType, spec, sort).getResultList();
+    }
+
+    // Callers must consume and close the stream inside a transaction
+    public <E, R extends Record> Stream<R> stream(Class<E> entityType, Class<R> viewType,
+                                                  Specification<E> spec, Sort sort) {
+        return query(entityType, viewType, spec, sort)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private <E, R extends Record> TypedQuery<R> query(Class<E> entityType, Class<R> viewType,
+                                                      Specification<E> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(viewType);
+        Root<E> root = query.from(entityType);
+
+        String[] columns = COLUMNS.computeIfAbsent(viewType, CropProjectionRepository::componentNames);
+        Selection<?>[] selections = new Selection<?>[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            selections[i] = root.get(columns[i]);
+        }
+        query.select(cb.construct(viewType, selections));
+
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query);
+    }
+
+    private static String[] componentNames(Class<?> viewType) {
+        RecordComponent[] components = viewType.getRecordComponents();
+        String[] names = new String[components.length];
+        for (int i = 0; i < components.length; i++) {
+            names[i] = components[i].getName();
+        }
+        return names;
+    }
+}
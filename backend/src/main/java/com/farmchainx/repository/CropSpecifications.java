@@ -0,0 +1,75 @@
+package com.farmchainx.repository;
+
+import com.farmchainx.dto.CropCursor;
+import com.farmchainx.dto.CropFilter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query building blocks shared by the farmer, distributor and retailer crop tables, which use the same column names.
+ */
+public final class CropSpecifications {
+
+    // Newest first; id breaks ties so the keyset order is total
+    public static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private CropSpecifications() {
+    }
+
+    public static <T> Specification<T> ownedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static <T> Specification<T> hasFarmerId(String farmerId) {
+        return (root, query, cb) -> cb.equal(root.get("farmerId"), farmerId);
+    }
+
+    public static <T> Specification<T> hasDistributorId(String distributorId) {
+        return (root, query, cb) -> cb.equal(root.get("distributorId"), distributorId);
+    }
+
+    public static <T> Specification<T> matching(CropFilter filter) {
+        Specification<T> spec = Specification.where(null);
+        if (filter == null) {
+            return spec;
+        }
+        if (StringUtils.hasText(filter.getCropType())) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("cropType"), filter.getCropType()));
+        }
+        if (StringUtils.hasText(filter.getNamePrefix())) {
+            String pattern = escapeLike(filter.getNamePrefix()) + "%";
+            spec = spec.and((root, query, cb) -> cb.like(root.get("name"), pattern, '\\'));
+        }
+        if (filter.getHarvestFrom() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("harvestDate"), filter.getHarvestFrom()));
+        }
+        if (filter.getHarvestTo() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("harvestDate"), filter.getHarvestTo()));
+        }
+        if (filter.getExpiryFrom() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("expiryDate"), filter.getExpiryFrom()));
+        }
+        if (filter.getExpiryTo() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("expiryDate"), filter.getExpiryTo()));
+        }
+        return spec;
+    }
+
+    // Rows strictly after the cursor in KEYSET_SORT order
+    public static <T> Specification<T> after(CropCursor cursor) {
+        if (cursor == null) {
+            return Specification.where(null);
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.<LocalDateTime>get("createdAt"), cursor.getCreatedAt()),
+                cb.and(cb.equal(root.get("createdAt"), cursor.getCreatedAt()),
+                        cb.lessThan(root.<Long>get("id"), cursor.getId())));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
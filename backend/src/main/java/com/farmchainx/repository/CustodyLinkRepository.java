@@ -0,0 +1,15 @@
+package com.farmchainx.repository;
+
+import com.farmchainx.model.CustodyLink;
+import com.farmchainx.model.CustodyStage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CustodyLinkRepository extends JpaRepository<CustodyLink, Long> {
+    // The record was handed on
+    boolean existsByFromStageAndFromId(CustodyStage fromStage, Long fromId);
+
+    // The record was received from upstream
+    boolean existsByToStageAndToId(CustodyStage toStage, Long toId);
+}
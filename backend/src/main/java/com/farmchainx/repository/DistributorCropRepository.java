@@ -3,12 +3,13 @@ package com.farmchainx.repository;
 import com.farmchainx.model.DistributorCrop;
 import com.farmchainx.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface DistributorCropRepository extends JpaRepository<DistributorCrop, Long> {
+public interface DistributorCropRepository extends JpaRepository<DistributorCrop, Long>, JpaSpecificationExecutor<DistributorCrop> {
     List<DistributorCrop> findByUser(User user);
     List<DistributorCrop> findByDistributorId(String distributorId);
 }
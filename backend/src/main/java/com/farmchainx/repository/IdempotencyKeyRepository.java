@@ -0,0 +1,31 @@
+package com.farmchainx.repository;
+
+import com.farmchainx.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+    
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.statusCode = :statusCode, k.responseBody = :responseBody, "
+            + "k.responseHeaders = :responseHeaders WHERE k.keyHash = :keyHash")
+    int complete(@Param("keyHash") String keyHash, @Param("statusCode") int statusCode,
+                 @Param("responseBody") String responseBody, @Param("responseHeaders") String responseHeaders);
+    
+    // Hands an unfinished key whose lease ran out to a new request; only one caller can win the update
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.lockedUntil = :lockedUntil WHERE k.keyHash = :keyHash "
+            + "AND k.statusCode IS NULL AND (k.lockedUntil IS NULL OR k.lockedUntil < :now)")
+    int takeOver(@Param("keyHash") String keyHash, @Param("now") LocalDateTime now,
+                 @Param("lockedUntil") LocalDateTime lockedUntil);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
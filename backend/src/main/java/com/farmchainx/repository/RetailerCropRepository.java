@@ -3,11 +3,12 @@ package com.farmchainx.repository;
 import com.farmchainx.model.RetailerCrop;
 import com.farmchainx.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface RetailerCropRepository extends JpaRepository<RetailerCrop, Long> {
+public interface RetailerCropRepository extends JpaRepository<RetailerCrop, Long>, JpaSpecificationExecutor<RetailerCrop> {
     List<RetailerCrop> findByUser(User user);
 }
@@ -23,6 +23,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByDistributorIdAndRole(String distributorId, UserRole role);
     
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+    
+    @Query("SELECT MAX(CAST(u.farmerId AS Long)) FROM User u WHERE u.farmerId IS NOT NULL")
+    Long findMaxFarmerNumber();
+    
+    @Query("SELECT MAX(CAST(u.distributorId AS Long)) FROM User u WHERE u.distributorId IS NOT NULL")
+    Long findMaxDistributorNumber();
+    
     @Query("SELECT u FROM User u WHERE u.farmerId = :farmerId AND u.role = 'FARMER'")
     Optional<User> findFarmerByFarmerId(@Param("farmerId") String farmerId);
     
@@ -1,6 +1,10 @@
 package com.farmchainx.security;
 
+import com.farmchainx.config.MetricsConfig;
+import com.farmchainx.model.User;
+import com.farmchainx.service.TokenVersionRegistry;
 import com.farmchainx.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +12,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,6 +29,12 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Value("${farmchainx.security.jwt.stateless:false}")
+    private boolean stateless;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -31,15 +42,17 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Claims claims = jwt != null ? jwtUtils.parseJwtClaims(jwt) : null;
+            UserDetails userDetails = claims != null ? loadPrincipal(claims) : null;
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (userDetails instanceof User user) {
+                    request.setAttribute(MetricsConfig.ROLE_ATTRIBUTE, user.getRole().name());
+                }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e);
@@ -48,6 +61,25 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails loadPrincipal(Claims claims) {
+        if (stateless && jwtUtils.hasPrincipalClaims(claims)) {
+            Long userId = jwtUtils.getUserId(claims);
+            if (!tokenVersionRegistry.isCurrent(userId, jwtUtils.getTokenVersion(claims))) {
+                logger.error("JWT token has been revoked for user id {}", userId);
+                return null;
+            }
+            return jwtUtils.buildPrincipal(claims);
+        }
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        if (userDetails instanceof User user && jwtUtils.hasTokenVersion(claims)
+                && jwtUtils.getTokenVersion(claims) < user.getTokenVersion()) {
+            logger.error("JWT token has been revoked for user id {}", user.getId());
+            return null;
+        }
+        return userDetails;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -1,65 +1,225 @@
 package com.farmchainx.security;
 
+import com.farmchainx.model.User;
+import com.farmchainx.model.UserRole;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_FARMER_ID = "fid";
+    static final String CLAIM_DISTRIBUTOR_ID = "did";
+    static final String CLAIM_NAME = "name";
+    static final String CLAIM_LOCATION = "loc";
+    static final String CLAIM_TOKEN_VERSION = "ver";
+
+    private static final String TIMER = "farmchainx.jwt";
+
     @Value("${spring.security.jwt.secret}")
     private String jwtSecret;
 
     @Value("${spring.security.jwt.expiration}")
     private int jwtExpirationMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${farmchainx.cache.verified-tokens.max-size:10000}")
+    private long verifiedTokenCacheSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    // Keyed by SHA-256 of the compact token; each entry lives until the token's own expiry
+    private Cache<String, Claims> verifiedTokens;
+
+    // Registered up front so timing a call is a clock read and a lock-free record
+    private Timer generateTimer;
+    private Timer verifyTimer;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheSize)
+                .expireAfter(new ClaimsExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedTokens");
+        generateTimer = Timer.builder(TIMER).tag("operation", "generate").register(meterRegistry);
+        verifyTimer = Timer.builder(TIMER).tag("operation", "verify").register(meterRegistry);
     }
 
     public String generateJwtToken(Authentication authentication) {
+        long start = System.nanoTime();
+        try {
+            return signToken(authentication);
+        } finally {
+            generateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or null when it is invalid or expired.
+     */
+    public Claims parseJwtClaims(String token) {
+        long start = System.nanoTime();
+        try {
+            return verify(token);
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private String signToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
 
-        return Jwts.builder()
-                .setSubject((userPrincipal.getUsername()))
+        JwtBuilder builder = Jwts.builder()
+                .setSubject((userPrincipal.getUsername()));
+
+        // Everything CropController reads from the principal, so stateless mode never needs the users table
+        if (userPrincipal instanceof User user) {
+            builder.claim(CLAIM_USER_ID, user.getId())
+                    .claim(CLAIM_ROLE, user.getRole().name())
+                    .claim(CLAIM_FARMER_ID, user.getFarmerId())
+                    .claim(CLAIM_DISTRIBUTOR_ID, user.getDistributorId())
+                    .claim(CLAIM_NAME, user.getName())
+                    .claim(CLAIM_LOCATION, user.getLocation())
+                    .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        }
+
+        return builder
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
+    private Claims verify(String token) {
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
 
-    public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(digest, claims);
+            return claims;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (io.jsonwebtoken.security.SecurityException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    public boolean hasPrincipalClaims(Claims claims) {
+        return claims.get(CLAIM_USER_ID) != null && claims.get(CLAIM_ROLE) != null
+                && claims.get(CLAIM_TOKEN_VERSION) != null;
+    }
+
+    public boolean hasTokenVersion(Claims claims) {
+        return claims.get(CLAIM_TOKEN_VERSION) != null;
+    }
+
+    public Long getUserId(Claims claims) {
+        return claims.get(CLAIM_USER_ID, Number.class).longValue();
+    }
+
+    public int getTokenVersion(Claims claims) {
+        return claims.get(CLAIM_TOKEN_VERSION, Number.class).intValue();
+    }
+
+    /**
+     * Builds a detached principal from the signed claims. It carries no password and is never persisted;
+     * its id is enough for Hibernate to reference the user from new crop rows.
+     */
+    public User buildPrincipal(Claims claims) {
+        User user = new User(claims.getSubject(), null,
+                claims.get(CLAIM_NAME, String.class),
+                claims.get(CLAIM_LOCATION, String.class),
+                UserRole.valueOf(claims.get(CLAIM_ROLE, String.class)));
+        user.setId(getUserId(claims));
+        user.setFarmerId(claims.get(CLAIM_FARMER_ID, String.class));
+        user.setDistributorId(claims.get(CLAIM_DISTRIBUTOR_ID, String.class));
+        user.setTokenVersion(getTokenVersion(claims));
+        return user;
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        Claims claims = parseJwtClaims(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseJwtClaims(authToken) != null;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class ClaimsExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMs = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
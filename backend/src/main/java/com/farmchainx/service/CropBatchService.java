@@ -0,0 +1,163 @@
+package com.farmchainx.service;
+
+import com.farmchainx.dto.BatchIngestResponse;
+import com.farmchainx.event.CropChangedEvent;
+import com.farmchainx.model.CustodyStage;
+import com.farmchainx.model.StageCrop;
+import com.farmchainx.model.User;
+import com.farmchainx.model.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Validates a whole upload up front, then inserts it in chunks. Each chunk is one transaction flushed as
+ * JDBC batches (see hibernate.jdbc.batch_size). If a chunk fails, its rows are retried one by one so the
+ * failure is attributed to the offending item only.
+ */
+@Service
+public class CropBatchService {
+
+    @Autowired
+    private CropFactory cropFactory;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CustodyLedger custodyLedger;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${farmchainx.crops.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${farmchainx.crops.batch.max-items:10000}")
+    private int maxItems;
+
+    public CropBatchService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public BatchIngestResponse ingest(User user, List<Map<String, Object>> items) {
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("Batch exceeds the maximum of " + maxItems + " crops");
+        }
+
+        long start = System.nanoTime();
+        List<BatchIngestResponse.ItemError> errors = new ArrayList<>();
+        List<StageCrop> valid = new ArrayList<>(items.size());
+        List<Integer> validIndexes = new ArrayList<>(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                StageCrop crop = newCrop(user, items.get(i));
+                String violations = describe(validator.validate(crop));
+                if (violations != null) {
+                    errors.add(new BatchIngestResponse.ItemError(i, violations));
+                } else {
+                    valid.add(crop);
+                    validIndexes.add(i);
+                }
+            } catch (RuntimeException e) {
+                errors.add(new BatchIngestResponse.ItemError(i, e.getMessage()));
+            }
+        }
+
+        int inserted = 0;
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, valid.size());
+            List<StageCrop> chunk = valid.subList(from, to);
+            try {
+                persistAll(chunk);
+                inserted += chunk.size();
+            } catch (CustodyLedger.BacklogFullException e) {
+                // Nothing more gets in until the ledger writer catches up; the rest are reported for resending
+                for (int i = from; i < valid.size(); i++) {
+                    errors.add(new BatchIngestResponse.ItemError(validIndexes.get(i), e.getMessage()));
+                }
+                break;
+            } catch (RuntimeException chunkFailure) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        // Rebuilt from the payload: the failed attempt already assigned ids to the originals
+                        persistAll(List.of(newCrop(user, items.get(validIndexes.get(i)))));
+                        inserted++;
+                    } catch (RuntimeException e) {
+                        errors.add(new BatchIngestResponse.ItemError(validIndexes.get(i), rootMessage(e)));
+                    }
+                }
+            }
+        }
+
+        errors.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        long elapsedNanos = System.nanoTime() - start;
+        double perSecond = elapsedNanos > 0 ? inserted * 1_000_000_000.0 / elapsedNanos : 0;
+        return new BatchIngestResponse(items.size(), inserted, items.size() - inserted, errors,
+                elapsedNanos / 1_000_000, Math.round(perSecond * 10) / 10.0);
+    }
+
+    private StageCrop newCrop(User user, Map<String, Object> cropData) {
+        if (user.getRole() == UserRole.FARMER) {
+            return cropFactory.newFarmerCrop(user, cropData);
+        } else if (user.getRole() == UserRole.DISTRIBUTOR) {
+            return cropFactory.newDistributorCrop(user, cropData);
+        } else if (user.getRole() == UserRole.RETAILER) {
+            return cropFactory.newRetailerCrop(user, cropData);
+        }
+        throw new IllegalArgumentException("Invalid user role for creating crops");
+    }
+
+    private void persistAll(List<StageCrop> crops) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (StageCrop crop : crops) {
+                entityManager.persist(crop);
+            }
+            entityManager.flush();
+            Map<CustodyStage, List<Long>> ids = crops.stream().collect(Collectors.groupingBy(StageCrop::getStage,
+                    Collectors.mapping(StageCrop::getId, Collectors.toList())));
+            ids.forEach((stage, stageIds) -> custodyLedger.record(stage, stageIds, CropChangedEvent.Type.CREATED));
+            entityManager.clear();
+        });
+        for (StageCrop crop : crops) {
+            eventPublisher.publishEvent(new CropChangedEvent(crop.getStage(), crop.getId(), CropChangedEvent.Type.CREATED));
+        }
+    }
+
+    private static String describe(Set<ConstraintViolation<StageCrop>> violations) {
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
@@ -0,0 +1,71 @@
+package com.farmchainx.service;
+
+import com.farmchainx.repository.CropProjectionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+import static com.farmchainx.repository.CropSpecifications.KEYSET_SORT;
+
+/**
+ * Writes crop rows straight from a database cursor to the response, one row at a time,
+ * so heap use does not grow with the size of the export.
+ */
+@Service
+public class CropExportService {
+
+    @Autowired
+    private CropProjectionRepository cropProjectionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public <E, R extends Record> void export(Class<E> entityType, Class<R> viewType, Specification<E> spec,
+                                             OutputStream out, boolean ndjson) throws IOException {
+        try (Stream<R> rows = cropProjectionRepository.stream(entityType, viewType, spec, KEYSET_SORT)) {
+            write(rows, out, ndjson);
+        }
+    }
+
+    private <R> void write(Stream<R> rows, OutputStream out, boolean ndjson) throws IOException {
+        // Flushing after every row would turn each crop into its own socket write
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            if (ndjson) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                generator.writeStartArray();
+            }
+
+            // Projected rows are never managed, so nothing accumulates in the persistence context
+            rows.forEach(row -> {
+                try {
+                    writer.writeValue(generator, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            if (ndjson) {
+                generator.writeRaw('\n');
+            } else {
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
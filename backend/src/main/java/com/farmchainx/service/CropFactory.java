@@ -0,0 +1,68 @@
+package com.farmchainx.service;
+
+import com.farmchainx.model.DistributorCrop;
+import com.farmchainx.model.FarmerCrop;
+import com.farmchainx.model.RetailerCrop;
+import com.farmchainx.model.User;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Builds stage crop entities from the request payload, stamping the owner's stakeholder details.
+ */
+@Component
+public class CropFactory {
+
+    public FarmerCrop newFarmerCrop(User user, Map<String, Object> cropData) {
+        FarmerCrop crop = new FarmerCrop();
+        crop.setUser(user);
+        crop.setName((String) cropData.get("name"));
+        crop.setCropType((String) cropData.get("cropType"));
+        crop.setHarvestDate(parseDate(cropData.get("harvestDate")));
+        crop.setExpiryDate(parseDate(cropData.get("expiryDate")));
+        crop.setSoilType((String) cropData.get("soilType"));
+        crop.setPesticidesUsed((String) cropData.get("pesticidesUsed"));
+        crop.setImageUrl((String) cropData.get("imageUrl"));
+        crop.setFarmerId(user.getFarmerId());
+        crop.setFarmerName(user.getName());
+        crop.setFarmerLocation(user.getLocation());
+        return crop;
+    }
+
+    public DistributorCrop newDistributorCrop(User user, Map<String, Object> cropData) {
+        DistributorCrop crop = new DistributorCrop();
+        crop.setUser(user);
+        crop.setName((String) cropData.get("name"));
+        crop.setCropType((String) cropData.get("cropType"));
+        crop.setHarvestDate(parseDate(cropData.get("harvestDate")));
+        crop.setExpiryDate(parseDate(cropData.get("expiryDate")));
+        crop.setSoilType((String) cropData.get("soilType"));
+        crop.setPesticidesUsed((String) cropData.get("pesticidesUsed"));
+        crop.setImageUrl((String) cropData.get("imageUrl"));
+        crop.setDistributorId(user.getDistributorId());
+        crop.setDistributorName(user.getName());
+        crop.setDistributorLocation(user.getLocation());
+        return crop;
+    }
+
+    public RetailerCrop newRetailerCrop(User user, Map<String, Object> cropData) {
+        RetailerCrop crop = new RetailerCrop();
+        crop.setUser(user);
+        crop.setName((String) cropData.get("name"));
+        crop.setCropType((String) cropData.get("cropType"));
+        crop.setHarvestDate(parseDate(cropData.get("harvestDate")));
+        crop.setExpiryDate(parseDate(cropData.get("expiryDate")));
+        crop.setSoilType((String) cropData.get("soilType"));
+        crop.setPesticidesUsed((String) cropData.get("pesticidesUsed"));
+        crop.setImageUrl((String) cropData.get("imageUrl"));
+        crop.setRetailerName(user.getName());
+        crop.setRetailerLocationAddress(user.getLocation());
+        return crop;
+    }
+
+    public LocalDate parseDate(Object value) {
+        return LocalDate.parse((String) value);
+    }
+}
@@ -0,0 +1,375 @@
+package com.farmchainx.service;
+
+import com.farmchainx.dto.CropSearchDocument;
+import com.farmchainx.dto.CropSearchResponse;
+import com.farmchainx.event.CropChangedEvent;
+import com.farmchainx.model.CustodyStage;
+import com.farmchainx.model.DistributorCrop;
+import com.farmchainx.model.FarmerCrop;
+import com.farmchainx.model.RetailerCrop;
+import com.farmchainx.repository.CropProjectionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over the farmer, distributor and retailer crop tables for free-text search on name,
+ * cropType, soilType and pesticidesUsed. It is built at startup by streaming each table once, then kept current
+ * from CropChangedEvent, published in-process for this instance's writes and by CustodyEventFeed for other
+ * instances': changes are collected and re-read from the database in one query per stage on the next refresh, so a
+ * batch of thousands of writes costs a handful of reads rather than one per row.
+ *
+ * Every query word must match a whole word or, from two characters on, the start of one; exact matches count
+ * double. Words after "no", "without" or a leading "-" exclude crops instead, so "organic tomato, no chlorpyrifos"
+ * finds organic tomatoes whose fields never mention chlorpyrifos. Hits are ranked by field-weighted term
+ * frequency times inverse document frequency.
+ */
+@Service
+public class CropSearchService {
+    private static final Logger logger = LoggerFactory.getLogger(CropSearchService.class);
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Set<String> NEGATIONS = Set.of("no", "without", "not");
+    private static final int MIN_PREFIX = 2;
+
+    private static final float NAME_WEIGHT = 3;
+    private static final float TYPE_WEIGHT = 2;
+    private static final float DETAIL_WEIGHT = 1;
+
+    private static final Map<CustodyStage, Class<?>> STAGE_TABLES = Map.of(
+            CustodyStage.FARMER, FarmerCrop.class,
+            CustodyStage.DISTRIBUTOR, DistributorCrop.class,
+            CustodyStage.RETAILER, RetailerCrop.class);
+
+    private final CropProjectionRepository cropProjectionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer rebuildTimer;
+    private final int maxPageSize;
+
+    private volatile Index index = new Index();
+    private volatile boolean building;
+    private final Map<DocKey, CropChangedEvent.Type> pending = new ConcurrentHashMap<>();
+
+    public CropSearchService(CropProjectionRepository cropProjectionRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${farmchainx.crops.page.max-size:500}") int maxPageSize) {
+        this.cropProjectionRepository = cropProjectionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.maxPageSize = maxPageSize;
+
+        this.rebuildTimer = meterRegistry.timer("farmchainx.search.index.rebuild");
+        Gauge.builder("farmchainx.search.index.documents", this, service -> service.index.documentCount())
+                .register(meterRegistry);
+        Gauge.builder("farmchainx.search.index.terms", this, service -> service.index.termCount())
+                .register(meterRegistry);
+        Gauge.builder("farmchainx.search.index.memory", this, service -> service.index.estimatedBytes())
+                .description("Approximate heap held by the search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        building = true;
+        try {
+            Index fresh = new Index();
+            rebuildTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                for (CustodyStage stage : STAGE_TABLES.keySet()) {
+                    try (Stream<CropSearchDocument> rows = cropProjectionRepository.stream(
+                            STAGE_TABLES.get(stage), CropSearchDocument.class, null, null)) {
+                        rows.forEach(row -> fresh.put(stage, row));
+                    }
+                }
+            }));
+            index = fresh;
+            logger.info("Search index built: {} crops, {} terms", fresh.documentCount(), fresh.termCount());
+        } finally {
+            building = false;
+        }
+        // Changes made while the tables were streaming are re-read now, so none of them is lost
+        refresh();
+    }
+
+    @EventListener
+    public void onCropChanged(CropChangedEvent event) {
+        if (STAGE_TABLES.containsKey(event.stage())) {
+            pending.put(new DocKey(event.stage(), event.id()), event.type());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${farmchainx.search.refresh-interval:PT0.2S}")
+    public void refresh() {
+        if (building || pending.isEmpty()) {
+            return;
+        }
+        Map<CustodyStage, List<Long>> changed = new HashMap<>();
+        for (DocKey key : List.copyOf(pending.keySet())) {
+            CropChangedEvent.Type type = pending.remove(key);
+            if (type == CropChangedEvent.Type.DELETED) {
+                index.remove(key);
+            } else if (type != null) {
+                changed.computeIfAbsent(key.stage(), stage -> new ArrayList<>()).add(key.id());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> changed.forEach((stage, ids) -> {
+            List<CropSearchDocument> rows = load(stage, ids);
+            Set<Long> found = new HashSet<>();
+            for (CropSearchDocument row : rows) {
+                index.put(stage, row);
+                found.add(row.id());
+            }
+            // Created and then deleted before this refresh
+            ids.stream().filter(id -> !found.contains(id)).forEach(id -> index.remove(new DocKey(stage, id)));
+        }));
+    }
+
+    public CropSearchResponse search(String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        int pageNumber = Math.max(0, page);
+
+        List<String> include = new ArrayList<>();
+        List<String> exclude = new ArrayList<>();
+        boolean negate = false;
+        for (String word : query.trim().split("\\s+")) {
+            boolean minus = word.startsWith("-");
+            List<String> tokens = tokenize(word);
+            if (tokens.size() == 1 && NEGATIONS.contains(tokens.get(0)) && !minus) {
+                negate = true;
+                continue;
+            }
+            (negate || minus ? exclude : include).addAll(tokens);
+            // "no chlorpyrifos, organic" only negates up to the comma
+            negate = negate && !word.endsWith(",");
+        }
+
+        List<CropSearchResponse.Hit> ranked = index.search(include, exclude);
+        int from = (int) Math.min((long) pageNumber * pageSize, ranked.size());
+        int to = Math.min(from + pageSize, ranked.size());
+        return new CropSearchResponse(query, ranked.size(), pageNumber, pageSize, ranked.subList(from, to));
+    }
+
+    private List<CropSearchDocument> load(CustodyStage stage, List<Long> ids) {
+        return loadAll(STAGE_TABLES.get(stage), ids);
+    }
+
+    private <E> List<CropSearchDocument> loadAll(Class<E> entityType, List<Long> ids) {
+        Specification<E> byIds = (root, query, cb) -> root.get("id").in(ids);
+        return cropProjectionRepository.findAll(entityType, CropSearchDocument.class, byIds, null);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private record DocKey(CustodyStage stage, Long id) {
+    }
+
+    private record Doc(CustodyStage stage, CropSearchDocument row, Map<String, Float> weights) {
+    }
+
+    /**
+     * Postings are kept in a sorted map so every term starting with a prefix is one contiguous sub-map. Each
+     * document also keeps its own term weights, so an update or delete touches only that document's postings.
+     */
+    private static final class Index {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<DocKey, Doc> docs = new HashMap<>();
+        private final NavigableMap<String, Map<DocKey, Float>> postings = new TreeMap<>();
+        private long postingCount;
+        private long textChars;
+
+        void put(CustodyStage stage, CropSearchDocument row) {
+            Map<String, Float> weights = new HashMap<>();
+            addField(weights, row.name(), NAME_WEIGHT);
+            addField(weights, row.cropType(), TYPE_WEIGHT);
+            addField(weights, row.soilType(), DETAIL_WEIGHT);
+            addField(weights, row.pesticidesUsed(), DETAIL_WEIGHT);
+            DocKey key = new DocKey(stage, row.id());
+
+            lock.writeLock().lock();
+            try {
+                unindex(docs.get(key));
+                Doc doc = new Doc(stage, row, weights);
+                docs.put(key, doc);
+                weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(key, weight));
+                postingCount += weights.size();
+                textChars += chars(row);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(DocKey key) {
+            lock.writeLock().lock();
+            try {
+                unindex(docs.remove(key));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<CropSearchResponse.Hit> search(List<String> include, List<String> exclude) {
+            if (include.isEmpty()) {
+                return List.of();
+            }
+            lock.readLock().lock();
+            try {
+                Map<DocKey, Double> scores = null;
+                for (String token : include) {
+                    Map<DocKey, Double> matches = matches(token);
+                    if (scores == null) {
+                        scores = matches;
+                    } else {
+                        Map<DocKey, Double> previous = scores;
+                        scores = new HashMap<>();
+                        for (Map.Entry<DocKey, Double> match : matches.entrySet()) {
+                            Double score = previous.get(match.getKey());
+                            if (score != null) {
+                                scores.put(match.getKey(), score + match.getValue());
+                            }
+                        }
+                    }
+                    if (scores.isEmpty()) {
+                        return List.of();
+                    }
+                }
+                for (String token : exclude) {
+                    scores.keySet().removeAll(matches(token).keySet());
+                }
+
+                return scores.entrySet().stream()
+                        .sorted(Map.Entry.<DocKey, Double>comparingByValue().reversed()
+                                .thenComparing(entry -> entry.getKey().stage())
+                                .thenComparing(entry -> entry.getKey().id()))
+                        .map(entry -> hit(docs.get(entry.getKey()), entry.getValue()))
+                        .toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Sum over every indexed term the token matches of weight * idf; whole-word matches count double
+        private Map<DocKey, Double> matches(String token) {
+            NavigableMap<String, Map<DocKey, Float>> terms = token.length() >= MIN_PREFIX
+                    ? postings.subMap(token, true, token + Character.MAX_VALUE, true)
+                    : postings.subMap(token, true, token, true);
+            Map<DocKey, Double> scores = new HashMap<>();
+            terms.forEach((term, docsWithTerm) -> {
+                double idf = Math.log(1 + (double) docs.size() / docsWithTerm.size());
+                double boost = term.equals(token) ? 2 : 1;
+                docsWithTerm.forEach((key, weight) -> scores.merge(key, weight * idf * boost, Double::sum));
+            });
+            return scores;
+        }
+
+        private void unindex(Doc doc) {
+            if (doc == null) {
+                return;
+            }
+            DocKey key = new DocKey(doc.stage(), doc.row().id());
+            for (String term : doc.weights().keySet()) {
+                Map<DocKey, Float> docsWithTerm = postings.get(term);
+                docsWithTerm.remove(key);
+                if (docsWithTerm.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+            postingCount -= doc.weights().size();
+            textChars -= chars(doc.row());
+        }
+
+        int documentCount() {
+            lock.readLock().lock();
+            try {
+                return docs.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int termCount() {
+            lock.readLock().lock();
+            try {
+                return postings.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Rough 64-bit JVM sizing with compressed oops: map entries, boxed keys and weights, the stored row with
+         * its strings, and each term string once in the postings and once per document that holds it.
+         */
+        long estimatedBytes() {
+            lock.readLock().lock();
+            try {
+                long termBytes = 0;
+                for (String term : postings.keySet()) {
+                    termBytes += 56 + term.length();
+                }
+                return docs.size() * 240L + textChars + termBytes + postingCount * (48L + 48L);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static CropSearchResponse.Hit hit(Doc doc, double score) {
+            CropSearchDocument row = doc.row();
+            return new CropSearchResponse.Hit(doc.stage(), row.id(), Math.round(score * 1000) / 1000.0, row.name(),
+                    row.cropType(), row.soilType(), row.pesticidesUsed(), row.expiryDate());
+        }
+
+        private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+            for (String token : tokenize(text)) {
+                weights.merge(token, fieldWeight, Float::sum);
+            }
+        }
+
+        private static long chars(CropSearchDocument row) {
+            return Stream.of(row.name(), row.cropType(), row.soilType(), row.pesticidesUsed())
+                    .mapToLong(value -> value != null ? 40 + value.length() : 0)
+                    .sum();
+        }
+    }
+}
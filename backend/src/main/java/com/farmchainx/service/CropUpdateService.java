@@ -0,0 +1,264 @@
+package com.farmchainx.service;
+
+import com.farmchainx.dto.CropResponse;
+import com.farmchainx.dto.DistributorCropResponse;
+import com.farmchainx.dto.FarmerCropResponse;
+import com.farmchainx.dto.RetailerCropResponse;
+import com.farmchainx.event.CropChangedEvent;
+import com.farmchainx.model.CustodyLink;
+import com.farmchainx.model.CustodyStage;
+import com.farmchainx.model.DistributorCrop;
+import com.farmchainx.model.FarmerCrop;
+import com.farmchainx.model.RetailerCrop;
+import com.farmchainx.model.StageCrop;
+import com.farmchainx.repository.CropProjectionRepository;
+import com.farmchainx.repository.CustodyLinkRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Owner-scoped crop edits. Each update or delete is a single statement whose WHERE clause carries both the crop id
+ * and the caller's user id, so nothing is read first and a crop owned by someone else simply matches no row.
+ * When the caller passes the version it last saw, the statement also matches on it; bulk statements do not
+ * bump @Version on their own, so every update increments it explicitly.
+ *
+ * A crop that is part of a custody chain cannot be deleted. The delete locks the crop's dispatch row first, as a
+ * receipt does, so it either waits for a receipt in flight and then sees its link, or removes the crop before the
+ * receipt can copy it.
+ */
+@Service
+public class CropUpdateService {
+
+    public enum Outcome {
+        APPLIED,
+        NOT_FOUND,
+        // The row exists but its version moved on since the caller read it
+        CONFLICT,
+        // The crop was handed on or received from upstream, and the custody chain is kept whole
+        LINKED
+    }
+
+    // Everything else on a crop row is stamped by the server
+    private static final List<String> EDITABLE_FIELDS = List.of(
+            "name", "cropType", "harvestDate", "expiryDate", "soilType", "pesticidesUsed", "imageUrl");
+
+    private static final Set<String> DATE_FIELDS = Set.of("harvestDate", "expiryDate");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CropProjectionRepository cropProjectionRepository;
+
+    @Autowired
+    private CropFactory cropFactory;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private CustodyLinkRepository custodyLinkRepository;
+
+    @Autowired
+    private CustodyLedger custodyLedger;
+
+    @Transactional
+    public <E extends StageCrop> E create(E crop) {
+        entityManager.persist(crop);
+        custodyLedger.record(crop.getStage(), List.of(crop.getId()), CropChangedEvent.Type.CREATED);
+        return crop;
+    }
+
+    /**
+     * Sets only the fields present in {@code changes}. A null {@code expectedVersion} skips the version check.
+     */
+    @Transactional
+    public Outcome patch(CustodyStage stage, Long id, Long userId, Long expectedVersion,
+                         Map<String, Object> changes) {
+        return update(stage, "patch", id, userId, expectedVersion, changes);
+    }
+
+    // Full replacement: editable fields missing from the payload are cleared, as PUT always did
+    @Transactional
+    public Outcome replace(CustodyStage stage, Long id, Long userId, Long expectedVersion,
+                           Map<String, Object> cropData) {
+        Map<String, Object> changes = new HashMap<>();
+        for (String field : EDITABLE_FIELDS) {
+            changes.put(field, cropData.get(field));
+        }
+        return update(stage, "replace", id, userId, expectedVersion, changes);
+    }
+
+    @Transactional
+    public Outcome delete(CustodyStage stage, Long id, Long userId, Long expectedVersion) {
+        Class<? extends StageCrop> entityType = entityType(stage);
+        if (expectedVersion != null) {
+            optimisticRetry.recordCheck(stage, "delete");
+        }
+        lockDispatch(stage, id);
+        if (delete(stage, entityType, id, userId, expectedVersion)) {
+            // A lot dispatched but not yet received is no longer on its way
+            entityManager.createNativeQuery("DELETE FROM custody_dispatches WHERE from_stage = ? AND from_id = ?")
+                    .setParameter(1, stage.name())
+                    .setParameter(2, id)
+                    .executeUpdate();
+            custodyLedger.record(stage, List.of(id), CropChangedEvent.Type.DELETED);
+            return Outcome.APPLIED;
+        }
+        return missed(stage, "delete", entityType, id, userId, expectedVersion);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<? extends CropResponse> find(CustodyStage stage, Long id) {
+        return switch (stage) {
+            case FARMER -> first(FarmerCrop.class, FarmerCropResponse.class, id);
+            case DISTRIBUTOR -> first(DistributorCrop.class, DistributorCropResponse.class, id);
+            case RETAILER -> first(RetailerCrop.class, RetailerCropResponse.class, id);
+            case CONSUMER -> Optional.empty();
+        };
+    }
+
+    private Outcome update(CustodyStage stage, String operation, Long id, Long userId, Long expectedVersion,
+                           Map<String, Object> changes) {
+        Class<? extends StageCrop> entityType = entityType(stage);
+        if (expectedVersion != null) {
+            optimisticRetry.recordCheck(stage, operation);
+        }
+        if (update(entityType, id, userId, expectedVersion, changes)) {
+            custodyLedger.record(stage, List.of(id), CropChangedEvent.Type.UPDATED);
+            return Outcome.APPLIED;
+        }
+        return missed(stage, operation, entityType, id, userId, expectedVersion);
+    }
+
+    // Only reached when nothing matched, so the common path stays a single statement
+    private Outcome missed(CustodyStage stage, String operation, Class<? extends StageCrop> entityType,
+                           Long id, Long userId, Long expectedVersion) {
+        if (!exists(entityType, id, userId)) {
+            return Outcome.NOT_FOUND;
+        }
+        if (operation.equals("delete") && linked(stage, id)) {
+            return Outcome.LINKED;
+        }
+        if (expectedVersion == null) {
+            return Outcome.NOT_FOUND;
+        }
+        optimisticRetry.recordConflict(stage, operation);
+        return Outcome.CONFLICT;
+    }
+
+    private <E extends StageCrop> boolean update(Class<E> entityType, Long id, Long userId, Long expectedVersion,
+                                                 Map<String, Object> changes) {
+        if (changes.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<E> update = cb.createCriteriaUpdate(entityType);
+        Root<E> root = update.from(entityType);
+
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            String field = change.getKey();
+            if (!EDITABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Field cannot be updated: " + field);
+            }
+            Object value = change.getValue() != null && DATE_FIELDS.contains(field)
+                    ? cropFactory.parseDate(change.getValue())
+                    : change.getValue();
+            Set<ConstraintViolation<E>> violations = validator.validateValue(entityType, field, value);
+            if (!violations.isEmpty()) {
+                throw new IllegalArgumentException(field + " " + violations.iterator().next().getMessage());
+            }
+            update.set(root.<Object>get(field), value);
+        }
+        // Bulk statements bypass @PreUpdate and the @Version increment
+        update.set(root.<LocalDateTime>get("updatedAt"), LocalDateTime.now());
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+        update.where(owned(cb, root, id, userId, expectedVersion));
+
+        return entityManager.createQuery(update).executeUpdate() > 0;
+    }
+
+    private <E extends StageCrop> boolean delete(CustodyStage stage, Class<E> entityType, Long id, Long userId,
+                                                 Long expectedVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<E> delete = cb.createCriteriaDelete(entityType);
+        Root<E> root = delete.from(entityType);
+        // One subquery per side, so each probes its own index
+        Subquery<Long> handedOn = delete.subquery(Long.class);
+        Root<CustodyLink> out = handedOn.from(CustodyLink.class);
+        handedOn.select(out.get("id")).where(cb.equal(out.get("fromStage"), stage), cb.equal(out.get("fromId"), id));
+        Subquery<Long> received = delete.subquery(Long.class);
+        Root<CustodyLink> in = received.from(CustodyLink.class);
+        received.select(in.get("id")).where(cb.equal(in.get("toStage"), stage), cb.equal(in.get("toId"), id));
+        delete.where(owned(cb, root, id, userId, expectedVersion), cb.not(cb.exists(handedOn)),
+                cb.not(cb.exists(received)));
+
+        return entityManager.createQuery(delete).executeUpdate() > 0;
+    }
+
+    private <E extends StageCrop> boolean exists(Class<E> entityType, Long id, Long userId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<E> root = query.from(entityType);
+        query.select(cb.count(root)).where(owned(cb, root, id, userId, null));
+
+        return entityManager.createQuery(query).getSingleResult() > 0;
+    }
+
+    private boolean linked(CustodyStage stage, Long id) {
+        return custodyLinkRepository.existsByFromStageAndFromId(stage, id)
+                || custodyLinkRepository.existsByToStageAndToId(stage, id);
+    }
+
+    // Held until commit; a receipt of the same lot takes this lock before it copies the row
+    private void lockDispatch(CustodyStage stage, Long id) {
+        entityManager.createNativeQuery(
+                        "SELECT from_id FROM custody_dispatches WHERE from_stage = ? AND from_id = ? FOR UPDATE")
+                .setParameter(1, stage.name())
+                .setParameter(2, id)
+                .getResultList();
+    }
+
+    private static Predicate owned(CriteriaBuilder cb, Root<?> root, Long id, Long userId, Long expectedVersion) {
+        Predicate owned = cb.and(cb.equal(root.get("id"), id), cb.equal(root.get("user").get("id"), userId));
+        return expectedVersion != null ? cb.and(owned, cb.equal(root.get("version"), expectedVersion)) : owned;
+    }
+
+    private <E, R extends Record> Optional<R> first(Class<E> entityType, Class<R> viewType, Long id) {
+        Specification<E> byId = (root, query, cb) -> cb.equal(root.get("id"), id);
+        return cropProjectionRepository.findPage(entityType, viewType, byId, null, 1).stream().findFirst();
+    }
+
+    private static Class<? extends StageCrop> entityType(CustodyStage stage) {
+        return switch (stage) {
+            case FARMER -> FarmerCrop.class;
+            case DISTRIBUTOR -> DistributorCrop.class;
+            case RETAILER -> RetailerCrop.class;
+            case CONSUMER -> throw new IllegalArgumentException("Invalid user role");
+        };
+    }
+}
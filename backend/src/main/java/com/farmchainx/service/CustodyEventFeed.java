@@ -0,0 +1,72 @@
+package com.farmchainx.service;
+
+import com.farmchainx.event.CropChangedEvent;
+import com.farmchainx.model.CustodyStage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Republishes crop changes made on other instances as CropChangedEvent, so the caches and indexes each instance
+ * keeps in memory follow every write to the shared database and not only those made in this process. It tails
+ * custody_events by seq from the chain head at startup; changes from before then are already in the tables the
+ * indexes are built from. Writers assign seq while holding the custody_ledger_head lock, so events commit in seq
+ * order and the feed never steps over one still to come. Changes this instance recorded were published when they
+ * were made and are skipped.
+ *
+ * Another instance's change arrives once its ledger writer has appended it, usually within the ledger and feed
+ * poll intervals. It carries no upstream lot; a hand-over also records the upstream lot's own update.
+ */
+@Component
+public class CustodyEventFeed {
+
+    private static final String EVENTS_SQL = """
+            SELECT seq, stage, entity_id, event_type, origin FROM custody_events
+            WHERE seq > ? ORDER BY seq LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CustodyLedger custodyLedger;
+    private final int batchSize;
+
+    // The last event seen; null until the first poll
+    private Long seenThrough;
+
+    public CustodyEventFeed(JdbcTemplate jdbcTemplate,
+                            ApplicationEventPublisher eventPublisher,
+                            CustodyLedger custodyLedger,
+                            @Value("${farmchainx.ledger.batch-size:1024}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.custodyLedger = custodyLedger;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${farmchainx.ledger.feed-interval:PT1S}")
+    public synchronized void poll() {
+        if (seenThrough == null) {
+            seenThrough = jdbcTemplate.queryForObject("SELECT seq FROM custody_ledger_head WHERE id = 1", Long.class);
+        }
+        List<Event> events;
+        do {
+            events = jdbcTemplate.query(EVENTS_SQL, (rs, row) -> new Event(rs.getLong("seq"),
+                    CustodyStage.valueOf(rs.getString("stage")), rs.getLong("entity_id"),
+                    CropChangedEvent.Type.valueOf(rs.getString("event_type")), rs.getString("origin")),
+                    seenThrough, batchSize);
+            for (Event event : events) {
+                if (!custodyLedger.origin().equals(event.origin())) {
+                    eventPublisher.publishEvent(new CropChangedEvent(event.stage(), event.entityId(), event.type()));
+                }
+                seenThrough = event.seq();
+            }
+        } while (events.size() == batchSize);
+    }
+
+    private record Event(long seq, CustodyStage stage, long entityId, CropChangedEvent.Type type, String origin) {
+    }
+}
@@ -0,0 +1,459 @@
+package com.farmchainx.service;
+
+import com.farmchainx.dto.InclusionProof;
+import com.farmchainx.dto.ScanResponse;
+import com.farmchainx.event.CropChangedEvent;
+import com.farmchainx.model.ConsumerPurchase;
+import com.farmchainx.model.CustodyStage;
+import com.farmchainx.model.DistributorCrop;
+import com.farmchainx.model.FarmerCrop;
+import com.farmchainx.model.RetailerCrop;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tamper-evident custody history. Every crop change is appended to custody_events with a SHA-256 hash that
+ * covers the previous event's hash, and runs of events are sealed into Merkle batches so a scan can prove one
+ * event against a batch root with a logarithmic number of hashes (see InclusionProof for the exact scheme).
+ *
+ * Write paths call {@link #record} inside the transaction that changes the crop. It only inserts the change into
+ * custody_outbox, so a change commits together with its ledger entry or not at all, and request threads never
+ * read, serialize or hash records for the ledger. A writer thread on each instance drains the outbox: it reads
+ * the changed records, digests them and appends the events. A record changed again before the writer gets to it
+ * is digested as it then stands. Every append locks the custody_ledger_head row, so instances take turns extending
+ * one chain. A row that keeps failing on its own is moved to custody_dead_letters after max-attempts tries.
+ *
+ * The outbox is bounded: once max-pending changes are waiting, {@link #record} refuses new ones with
+ * {@link BacklogFullException} and the change is rolled back, rather than letting the backlog grow without limit.
+ */
+@Service
+public class CustodyLedger {
+    private static final Logger logger = LoggerFactory.getLogger(CustodyLedger.class);
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private static final String INSERT_OUTBOX_SQL =
+            "INSERT INTO custody_outbox (stage, entity_id, event_type, occurred_at, origin) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String LOCK_HEAD_SQL =
+            "SELECT seq, hash, sealed_seq, batch_id FROM custody_ledger_head WHERE id = 1 FOR UPDATE";
+
+    private static final String UPDATE_HEAD_SQL =
+            "UPDATE custody_ledger_head SET seq = ?, hash = ?, sealed_seq = ?, batch_id = ? WHERE id = 1";
+
+    private static final String PENDING_SQL = """
+            SELECT id, stage, entity_id, event_type, record_digest, occurred_at, origin FROM custody_outbox
+            ORDER BY id LIMIT ?
+            """;
+
+    private static final String INSERT_EVENT_SQL = """
+            INSERT INTO custody_events (seq, stage, entity_id, event_type, record_digest, occurred_at, prev_hash, hash,
+                origin)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_BATCH_SQL =
+            "INSERT INTO merkle_batches (id, first_seq, last_seq, leaf_count, root, sealed_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String DEAD_LETTER_SQL = """
+            INSERT INTO custody_dead_letters (id, stage, entity_id, event_type, record_digest, occurred_at, attempts,
+                last_error, failed_at)
+            SELECT id, stage, entity_id, event_type, record_digest, occurred_at, attempts, last_error, ?
+            FROM custody_outbox WHERE id = ?
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Counter deadLetters;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long maxPending;
+    private final Duration sealInterval;
+    private final Duration pollInterval;
+
+    // Sealed batches never change, so their leaves can be kept for repeated proofs
+    private final Cache<Long, List<String>> sealedLeaves = Caffeine.newBuilder().maximumSize(64).build();
+
+    // Outbox rows as last counted by the writer, plus what this instance queued since
+    private final AtomicLong queued = new AtomicLong();
+
+    // Tags the changes this instance records, so CustodyEventFeed can tell them from other instances' changes
+    private final String origin = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public CustodyLedger(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${farmchainx.ledger.batch-size:1024}") int batchSize,
+                         @Value("${farmchainx.ledger.max-attempts:10}") int maxAttempts,
+                         @Value("${farmchainx.ledger.max-pending:100000}") long maxPending,
+                         @Value("${farmchainx.ledger.seal-interval:PT30S}") Duration sealInterval,
+                         @Value("${farmchainx.ledger.poll-interval:PT1S}") Duration pollInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.maxPending = maxPending;
+        this.sealInterval = sealInterval;
+        this.pollInterval = pollInterval;
+        this.deadLetters = meterRegistry.counter("farmchainx.ledger.dead_letters");
+        meterRegistry.gauge("farmchainx.ledger.pending", queued);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "custody-ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues the changes to the given records of one stage for the ledger, in the caller's transaction. The
+     * writer on this instance is woken once the transaction commits.
+     *
+     * @throws BacklogFullException when max-pending changes are already waiting for the writer
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(CustodyStage stage, Collection<Long> ids, CropChangedEvent.Type type) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (queued.addAndGet(ids.size()) > maxPending) {
+            queued.addAndGet(-ids.size());
+            throw new BacklogFullException(maxPending);
+        }
+        Timestamp occurredAt = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            rows.add(new Object[]{stage.name(), id, type.name(), occurredAt, origin});
+        }
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, rows);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                LockSupport.unpark(writer);
+            }
+        });
+    }
+
+    /**
+     * Appends up to batch-size queued changes to the chain and seals every batch that is due, in one transaction.
+     * Returns the number of changes appended.
+     */
+    public int append() {
+        return append(batchSize, new ArrayList<>());
+    }
+
+    public String origin() {
+        return origin;
+    }
+
+    public Optional<InclusionProof> prove(CustodyStage stage, Long id) {
+        List<InclusionProof> latest = jdbcTemplate.query("""
+                        SELECT seq, record_digest, event_type, occurred_at, prev_hash, hash FROM custody_events
+                        WHERE stage = ? AND entity_id = ? ORDER BY seq DESC LIMIT 1
+                        """,
+                (rs, row) -> new InclusionProof(rs.getLong("seq"), stage, id,
+                        CropChangedEvent.Type.valueOf(rs.getString("event_type")), rs.getString("record_digest"),
+                        rs.getTimestamp("occurred_at").toLocalDateTime(), rs.getString("prev_hash"),
+                        rs.getString("hash"), null, null, null, List.of(), null, null),
+                stage.name(), id);
+        if (latest.isEmpty()) {
+            return Optional.empty();
+        }
+        InclusionProof event = latest.get(0);
+
+        List<InclusionProof> sealed = jdbcTemplate.query("""
+                        SELECT id, first_seq, last_seq, root, sealed_at FROM merkle_batches
+                        WHERE last_seq >= ? ORDER BY last_seq LIMIT 1
+                        """,
+                (rs, row) -> {
+                    long batchId = rs.getLong("id");
+                    long firstSeq = rs.getLong("first_seq");
+                    long lastSeq = rs.getLong("last_seq");
+                    List<String> leaves = sealedLeaves.get(batchId, key -> leaves(firstSeq, lastSeq));
+                    int index = (int) (event.seq() - firstSeq);
+                    return new InclusionProof(event.seq(), stage, id, event.type(), event.recordDigest(),
+                            event.occurredAt(), event.prevHash(), event.hash(), batchId, index, leaves.size(),
+                            MerkleTree.path(leaves, index), rs.getString("root"),
+                            rs.getTimestamp("sealed_at").toLocalDateTime());
+                },
+                event.seq());
+        return Optional.of(sealed.isEmpty() ? event : sealed.get(0));
+    }
+
+    private void drain() {
+        // After a batch fails, the rows it held are retried one at a time to find the one at fault
+        int isolating = 0;
+        while (running) {
+            List<Long> claimed = new ArrayList<>();
+            int limit = isolating > 0 ? 1 : batchSize;
+            try {
+                int appended = append(limit, claimed);
+                isolating = Math.max(0, isolating - appended);
+                queued.set(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM custody_outbox", Long.class));
+                if (appended < limit) {
+                    LockSupport.parkNanos(pollInterval.toNanos());
+                }
+            } catch (RuntimeException e) {
+                if (claimed.size() > 1) {
+                    logger.warn("Custody ledger batch of {} failed, retrying one by one: {}", claimed.size(), e.toString());
+                    isolating = claimed.size();
+                } else if (claimed.size() == 1) {
+                    if (failed(claimed.get(0), e)) {
+                        isolating = Math.max(0, isolating - 1);
+                    }
+                } else {
+                    logger.warn("Custody ledger write failed, retrying: {}", e.toString());
+                }
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private int append(int limit, List<Long> claimed) {
+        int count = transactionTemplate.execute(status -> {
+            Head head = jdbcTemplate.queryForObject(LOCK_HEAD_SQL, (rs, row) -> new Head(rs.getLong("seq"),
+                    rs.getString("hash"), rs.getLong("sealed_seq"), rs.getLong("batch_id")));
+            // Claimed before mapping, so a row that cannot even be read is still attributed
+            List<Pending> pending = jdbcTemplate.query(PENDING_SQL, (rs, row) -> {
+                claimed.add(rs.getLong("id"));
+                return new Pending(rs.getLong("id"), CustodyStage.valueOf(rs.getString("stage")),
+                        rs.getLong("entity_id"), CropChangedEvent.Type.valueOf(rs.getString("event_type")),
+                        rs.getString("record_digest"), rs.getTimestamp("occurred_at").toLocalDateTime(),
+                        rs.getString("origin"));
+            }, limit);
+            Map<CustodyStage, Map<Long, ScanResponse>> records = load(pending);
+
+            long seq = head.seq();
+            String prevHash = head.hash();
+            List<Object[]> events = new ArrayList<>(pending.size());
+            List<Object[]> done = new ArrayList<>(pending.size());
+            for (Pending change : pending) {
+                seq++;
+                String recordDigest = digest(change, records);
+                String hash = sha256Hex(String.join("|", prevHash, Long.toString(seq), change.stage().name(),
+                        Long.toString(change.entityId()), change.type().name(), recordDigest != null ? recordDigest : "",
+                        DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(change.occurredAt())));
+                events.add(new Object[]{seq, change.stage().name(), change.entityId(), change.type().name(),
+                        recordDigest, Timestamp.valueOf(change.occurredAt()), prevHash, hash, change.origin()});
+                done.add(new Object[]{change.id()});
+                prevHash = hash;
+            }
+            if (!pending.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, events);
+                jdbcTemplate.batchUpdate("DELETE FROM custody_outbox WHERE id = ?", done);
+            }
+
+            Head appended = new Head(seq, prevHash, head.sealedSeq(), head.batchId());
+            Head sealed = seal(appended);
+            if (!sealed.equals(head)) {
+                jdbcTemplate.update(UPDATE_HEAD_SQL, sealed.seq(), sealed.hash(), sealed.sealedSeq(), sealed.batchId());
+            }
+            return pending.size();
+        });
+        queued.updateAndGet(waiting -> Math.max(0, waiting - count));
+        return count;
+    }
+
+    // Full batches are sealed at once; a partial one when its oldest event has waited for the seal interval
+    private Head seal(Head head) {
+        while (head.seq() > head.sealedSeq()) {
+            long unsealed = head.seq() - head.sealedSeq();
+            if (unsealed < batchSize && !sealIntervalElapsed(head.sealedSeq() + 1)) {
+                break;
+            }
+            int count = (int) Math.min(unsealed, batchSize);
+            long firstSeq = head.sealedSeq() + 1;
+            long lastSeq = head.sealedSeq() + count;
+            long batchId = head.batchId() + 1;
+            jdbcTemplate.update(INSERT_BATCH_SQL, batchId, firstSeq, lastSeq, count,
+                    MerkleTree.root(leaves(firstSeq, lastSeq)), Timestamp.valueOf(LocalDateTime.now()));
+            head = new Head(head.seq(), head.hash(), lastSeq, batchId);
+        }
+        return head;
+    }
+
+    private boolean sealIntervalElapsed(long seq) {
+        LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT occurred_at FROM custody_events WHERE seq = ?",
+                LocalDateTime.class, seq);
+        return !oldest.plus(sealInterval).isAfter(LocalDateTime.now());
+    }
+
+    private List<String> leaves(long firstSeq, long lastSeq) {
+        return jdbcTemplate.queryForList("SELECT hash FROM custody_events WHERE seq BETWEEN ? AND ? ORDER BY seq",
+                String.class, firstSeq, lastSeq);
+    }
+
+    // Counts a failed attempt at one outbox row; returns true once the row has been moved to the dead letters
+    private boolean failed(long id, RuntimeException cause) {
+        String error = cause.toString();
+        String lastError = error.length() > 512 ? error.substring(0, 512) : error;
+        try {
+            boolean dead = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                jdbcTemplate.update("UPDATE custody_outbox SET attempts = attempts + 1, last_error = ? WHERE id = ?",
+                        lastError, id);
+                List<Integer> attempts = jdbcTemplate.queryForList("SELECT attempts FROM custody_outbox WHERE id = ?",
+                        Integer.class, id);
+                if (attempts.isEmpty() || attempts.get(0) < maxAttempts) {
+                    return false;
+                }
+                jdbcTemplate.update(DEAD_LETTER_SQL, Timestamp.valueOf(LocalDateTime.now()), id);
+                jdbcTemplate.update("DELETE FROM custody_outbox WHERE id = ?", id);
+                return true;
+            }));
+            if (dead) {
+                deadLetters.increment();
+                logger.error("Custody ledger gave up on outbox row {} after {} attempts: {}", id, maxAttempts, error);
+            } else {
+                logger.warn("Custody ledger append of outbox row {} failed, retrying: {}", id, error);
+            }
+            return dead;
+        } catch (RuntimeException e) {
+            logger.warn("Custody ledger append of outbox row {} failed and could not be counted: {}", id, e.toString());
+            return false;
+        }
+    }
+
+    // Rows queued before digests moved to the writer already carry theirs; a deleted record has none
+    private String digest(Pending change, Map<CustodyStage, Map<Long, ScanResponse>> records) {
+        if (change.recordDigest() != null || change.type() == CropChangedEvent.Type.DELETED) {
+            return change.recordDigest();
+        }
+        ScanResponse record = records.getOrDefault(change.stage(), Map.of()).get(change.entityId());
+        return record != null ? sha256Hex(toJson(record)) : null;
+    }
+
+    // One IN query per stage for the records the claimed changes still need digested
+    private Map<CustodyStage, Map<Long, ScanResponse>> load(List<Pending> changes) {
+        Map<CustodyStage, Set<Long>> ids = new EnumMap<>(CustodyStage.class);
+        for (Pending change : changes) {
+            if (change.recordDigest() == null && change.type() != CropChangedEvent.Type.DELETED) {
+                ids.computeIfAbsent(change.stage(), stage -> new HashSet<>()).add(change.entityId());
+            }
+        }
+        Map<CustodyStage, Map<Long, ScanResponse>> records = new EnumMap<>(CustodyStage.class);
+        ids.forEach((stage, stageIds) -> records.put(stage, load(stage, stageIds)));
+        return records;
+    }
+
+    // A stateless session keeps a large batch of records out of the persistence context
+    private Map<Long, ScanResponse> load(CustodyStage stage, Collection<Long> ids) {
+        Session session = entityManager.unwrap(Session.class);
+        List<ScanResponse> found = session.doReturningWork(connection -> {
+            try (StatelessSession reader = session.getSessionFactory().openStatelessSession(connection)) {
+                return switch (stage) {
+                    case FARMER -> find(reader, FarmerCrop.class, ids).stream().map(ScanResponse::from).toList();
+                    case DISTRIBUTOR -> find(reader, DistributorCrop.class, ids).stream().map(ScanResponse::from).toList();
+                    case RETAILER -> find(reader, RetailerCrop.class, ids).stream().map(ScanResponse::from).toList();
+                    case CONSUMER -> find(reader, ConsumerPurchase.class, ids).stream().map(ScanResponse::from).toList();
+                };
+            }
+        });
+        Map<Long, ScanResponse> byId = new HashMap<>();
+        found.forEach(record -> byId.put(record.id(), record));
+        return byId;
+    }
+
+    private static <E> List<E> find(StatelessSession reader, Class<E> entityType, Collection<Long> ids) {
+        return reader.createQuery("FROM " + entityType.getSimpleName() + " e WHERE e.id IN :ids", entityType)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    private String toJson(ScanResponse record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize crop " + record.id(), e);
+        }
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HEX.formatHex(sha256.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Thrown by {@link #record} when the outbox already holds max-pending changes; the caller's change is rolled
+     * back and can be retried once the writer has caught up.
+     */
+    public static class BacklogFullException extends RuntimeException {
+        public BacklogFullException(long maxPending) {
+            super("Custody ledger backlog is full (" + maxPending + " changes waiting); try again shortly");
+        }
+    }
+
+    private record Head(long seq, String hash, long sealedSeq, long batchId) {
+    }
+
+    private record Pending(long id, CustodyStage stage, long entityId, CropChangedEvent.Type type,
+                           String recordDigest, LocalDateTime occurredAt, String origin) {
+    }
+}
@@ -0,0 +1,357 @@
+package com.farmchainx.service;
+
+import com.farmchainx.dto.DispatchResponse;
+import com.farmchainx.dto.TransferResponse;
+import com.farmchainx.event.CropChangedEvent;
+import com.farmchainx.model.ConsumerPurchase;
+import com.farmchainx.model.CustodyStage;
+import com.farmchainx.model.DistributorCrop;
+import com.farmchainx.model.FarmerCrop;
+import com.farmchainx.model.RetailerCrop;
+import com.farmchainx.model.User;
+import com.farmchainx.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Hands lots to the next custody stage in two steps. The upstream owner dispatches lots to a named receiver, and
+ * only that receiver can then take them in. Consumer purchases skip the dispatch: a retailer's stock is on sale to
+ * anyone. Each downstream record is built by the database from its upstream row with a single INSERT ... SELECT,
+ * so nothing is re-keyed and the copied farmer and distributor details cannot drift. The inserts, the custody
+ * links and any upstream update are sent as JDBC batches in one transaction.
+ *
+ * A farmer or distributor lot is handed over once. Receipt locks the lot's dispatch row and marks it received, so
+ * a second receipt waits for the first and is then refused, and a received lot cannot be dispatched again. A
+ * retailer lot can be bought by any number of consumers.
+ *
+ * Every copy is pinned to the upstream version seen when the lots were checked. If a lot is edited in between,
+ * the transaction rolls back and OptimisticRetry runs the whole transfer again.
+ */
+@Service
+public class CustodyTransferService {
+
+    private static final String RECEIVE_FROM_FARMER_SQL = """
+            INSERT INTO distributor_crops (id, user_id, name, crop_type, harvest_date, expiry_date, soil_type,
+                pesticides_used, image_url, farmer_id, farmer_name, farmer_location, distributor_id, distributor_name,
+                distributor_location, distributor_received_date, created_at, updated_at, version)
+            SELECT ?, ?, name, crop_type, harvest_date, expiry_date, soil_type,
+                pesticides_used, image_url, farmer_id, farmer_name, farmer_location, ?, ?,
+                ?, ?, ?, ?, 0
+            FROM farmer_crops WHERE id = ? AND version = ?
+            """;
+
+    private static final String RECEIVE_FROM_DISTRIBUTOR_SQL = """
+            INSERT INTO retailer_crops (id, user_id, name, crop_type, harvest_date, expiry_date, soil_type,
+                pesticides_used, image_url, farmer_id, farmer_name, farmer_location, distributor_id, distributor_name,
+                distributor_location, distributor_received_date, retailer_name, retailer_location_address,
+                retailer_received_date, received_from_distributor, created_at, updated_at, version)
+            SELECT ?, ?, name, crop_type, harvest_date, expiry_date, soil_type,
+                pesticides_used, image_url, farmer_id, farmer_name, farmer_location, distributor_id, distributor_name,
+                distributor_location, distributor_received_date, ?, ?,
+                ?, distributor_name, ?, ?, 0
+            FROM distributor_crops WHERE id = ? AND version = ?
+            """;
+
+    // The distributor row records where the lot went, as the distributor form used to have typed in
+    private static final String MARK_SENT_TO_RETAILER_SQL = """
+            UPDATE distributor_crops SET sent_to_retailer = ?, retailer_location = ?, updated_at = ?,
+                version = version + 1
+            WHERE id = ? AND version = ?
+            """;
+
+    private static final String RECEIVE_FROM_RETAILER_SQL = """
+            INSERT INTO consumer_purchases (id, user_id, crop_name, crop_type, purchase_date, purchased_from,
+                retailer_location, farmer_id, farmer_name, distributor_id, distributor_name, created_at, updated_at,
+                version)
+            SELECT ?, ?, name, crop_type, ?, retailer_name,
+                retailer_location_address, farmer_id, farmer_name, distributor_id, distributor_name, ?, ?,
+                0
+            FROM retailer_crops WHERE id = ? AND version = ?
+            """;
+
+    private static final String INSERT_DISPATCH_SQL = """
+            INSERT INTO custody_dispatches (from_stage, from_id, to_user_id, dispatched_at) VALUES (?, ?, ?, ?)
+            """;
+
+    private static final String REDIRECT_DISPATCH_SQL = """
+            UPDATE custody_dispatches SET to_user_id = ?, dispatched_at = ?
+            WHERE from_stage = ? AND from_id = ? AND received_at IS NULL
+            """;
+
+    private static final String RECEIVE_DISPATCH_SQL = """
+            UPDATE custody_dispatches SET received_at = ? WHERE from_stage = ? AND from_id = ?
+            """;
+
+    private static final String INSERT_LINK_SQL =
+            "INSERT INTO custody_links (from_stage, from_id, to_stage, to_id, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private CustodyLedger custodyLedger;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${farmchainx.crops.batch.max-items:10000}")
+    private int maxItems;
+
+    public CustodyTransferService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Sends the owner's lots to the user with the given email, who must be at the next stage. A lot that was
+     * dispatched but not yet received goes to the new receiver instead.
+     */
+    public DispatchResponse dispatch(User owner, String receiverEmail, List<Long> lotIds) {
+        CustodyStage fromStage = CustodyStage.of(owner.getRole());
+        if (fromStage == CustodyStage.RETAILER || fromStage == CustodyStage.CONSUMER) {
+            throw new IllegalArgumentException("Only farmers and distributors dispatch lots");
+        }
+        CustodyStage toStage = CustodyStage.values()[fromStage.ordinal() + 1];
+        User receiver = userRepository.findByEmail(String.valueOf(receiverEmail))
+                .filter(user -> CustodyStage.of(user.getRole()) == toStage)
+                .orElseThrow(() -> new IllegalArgumentException("No " + toStage + " with email " + receiverEmail));
+
+        Set<Long> ids = new LinkedHashSet<>(lotIds);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("No lots to dispatch");
+        }
+        if (ids.size() > maxItems) {
+            throw new IllegalArgumentException("Dispatch exceeds the maximum of " + maxItems + " lots");
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> owned = ownedIds(fromStage, owner.getId(), ids);
+            List<Long> missing = ids.stream().filter(id -> !owned.contains(id)).toList();
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException(fromStage + " lots not found: " + missing);
+            }
+            Map<Long, Boolean> dispatched = lockDispatches(fromStage, ids);
+            List<Long> received = ids.stream().filter(id -> Boolean.TRUE.equals(dispatched.get(id))).toList();
+            if (!received.isEmpty()) {
+                throw new IllegalArgumentException(fromStage + " lots already handed over: " + received);
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(REDIRECT_DISPATCH_SQL, ids.stream().filter(dispatched::containsKey)
+                    .map(id -> new Object[]{receiver.getId(), now, fromStage.name(), id})
+                    .toList());
+            try {
+                jdbcTemplate.batchUpdate(INSERT_DISPATCH_SQL, ids.stream().filter(id -> !dispatched.containsKey(id))
+                        .map(id -> new Object[]{fromStage.name(), id, receiver.getId(), now})
+                        .toList());
+            } catch (DuplicateKeyException e) {
+                throw new IllegalArgumentException(fromStage + " lots were dispatched by another request", e);
+            }
+        });
+        return new DispatchResponse(fromStage, receiver.getId(), List.copyOf(ids));
+    }
+
+    public TransferResponse receive(User receiver, List<Long> sourceIds) {
+        CustodyStage toStage = CustodyStage.of(receiver.getRole());
+        if (toStage == CustodyStage.FARMER) {
+            throw new IllegalArgumentException("Farmers start custody chains and cannot receive lots");
+        }
+        CustodyStage fromStage = CustodyStage.values()[toStage.ordinal() - 1];
+
+        Set<Long> ids = new LinkedHashSet<>(sourceIds);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("No lots to transfer");
+        }
+        if (ids.size() > maxItems) {
+            throw new IllegalArgumentException("Transfer exceeds the maximum of " + maxItems + " lots");
+        }
+
+        TransferResponse response = optimisticRetry.execute(toStage, "transfer",
+                () -> transactionTemplate.execute(status -> transfer(receiver, fromStage, toStage, ids)));
+
+        for (TransferResponse.Item item : response.transfers()) {
+            eventPublisher.publishEvent(new CropChangedEvent(toStage, item.toId(), CropChangedEvent.Type.CREATED,
+                    fromStage, item.fromId()));
+            if (fromStage == CustodyStage.DISTRIBUTOR) {
+                eventPublisher.publishEvent(new CropChangedEvent(fromStage, item.fromId(), CropChangedEvent.Type.UPDATED));
+            }
+        }
+        return response;
+    }
+
+    private TransferResponse transfer(User receiver, CustodyStage fromStage, CustodyStage toStage, Set<Long> ids) {
+        Map<Long, Long> versions = currentVersions(fromStage, ids);
+        List<Long> missing = ids.stream().filter(id -> !versions.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException(fromStage + " lots not found: " + missing);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        if (toStage != CustodyStage.CONSUMER) {
+            // Locked until commit, so a second receipt of the same lots waits and then finds them received
+            Map<Long, Boolean> dispatched = lockDispatches(fromStage, receiver.getId(), ids);
+            List<Long> notSent = ids.stream().filter(id -> !Boolean.FALSE.equals(dispatched.get(id))).toList();
+            if (!notSent.isEmpty()) {
+                throw new IllegalArgumentException(fromStage + " lots not dispatched to you: " + notSent);
+            }
+            jdbcTemplate.batchUpdate(RECEIVE_DISPATCH_SQL, ids.stream()
+                    .map(id -> new Object[]{timestamp, fromStage.name(), id})
+                    .toList());
+        }
+        Date today = Date.valueOf(LocalDate.now());
+
+        List<TransferResponse.Item> items = new ArrayList<>(ids.size());
+        List<Object[]> inserts = new ArrayList<>(ids.size());
+        List<Object[]> links = new ArrayList<>(ids.size());
+        for (Long fromId : ids) {
+            Long toId = nextId(toStage);
+            Long version = versions.get(fromId);
+            items.add(new TransferResponse.Item(fromId, toId));
+            links.add(new Object[]{fromStage.name(), fromId, toStage.name(), toId, timestamp});
+            inserts.add(switch (toStage) {
+                case DISTRIBUTOR -> new Object[]{toId, receiver.getId(), receiver.getDistributorId(),
+                        receiver.getName(), receiver.getLocation(), today, timestamp, timestamp, fromId, version};
+                case RETAILER -> new Object[]{toId, receiver.getId(), receiver.getName(), receiver.getLocation(),
+                        today, timestamp, timestamp, fromId, version};
+                case CONSUMER -> new Object[]{toId, receiver.getId(), today, timestamp, timestamp, fromId, version};
+                case FARMER -> throw new IllegalArgumentException("Farmers cannot receive lots");
+            });
+        }
+
+        requireAll(jdbcTemplate.batchUpdate(insertSql(toStage), inserts));
+        if (fromStage == CustodyStage.DISTRIBUTOR) {
+            List<Object[]> marks = items.stream()
+                    .map(item -> new Object[]{receiver.getName(), receiver.getLocation(), timestamp,
+                            item.fromId(), versions.get(item.fromId())})
+                    .toList();
+            requireAll(jdbcTemplate.batchUpdate(MARK_SENT_TO_RETAILER_SQL, marks));
+        }
+        jdbcTemplate.batchUpdate(INSERT_LINK_SQL, links);
+
+        custodyLedger.record(toStage, items.stream().map(TransferResponse.Item::toId).toList(),
+                CropChangedEvent.Type.CREATED);
+        if (fromStage == CustodyStage.DISTRIBUTOR) {
+            custodyLedger.record(fromStage, items.stream().map(TransferResponse.Item::fromId).toList(),
+                    CropChangedEvent.Type.UPDATED);
+        }
+
+        return new TransferResponse(fromStage, toStage, items);
+    }
+
+    private Set<Long> ownedIds(CustodyStage stage, Long ownerId, Set<Long> ids) {
+        return Set.copyOf(entityManager.createQuery("SELECT e.id FROM " + entityName(stage)
+                        + " e WHERE e.user.id = :owner AND e.id IN :ids", Long.class)
+                .setParameter("owner", ownerId)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    // Whether each dispatched lot has been received, keyed by lot id; rows stay locked until commit
+    private Map<Long, Boolean> lockDispatches(CustodyStage fromStage, Set<Long> ids) {
+        return lockDispatches(fromStage, null, ids);
+    }
+
+    private Map<Long, Boolean> lockDispatches(CustodyStage fromStage, Long receiverId, Set<Long> ids) {
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.add(fromStage.name());
+        if (receiverId != null) {
+            args.add(receiverId);
+        }
+        args.addAll(ids);
+        return jdbcTemplate.query("SELECT from_id, received_at FROM custody_dispatches WHERE from_stage = ?"
+                        + (receiverId != null ? " AND to_user_id = ?" : "")
+                        + " AND from_id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") FOR UPDATE",
+                rs -> {
+                    Map<Long, Boolean> received = new HashMap<>();
+                    while (rs.next()) {
+                        received.put(rs.getLong("from_id"), rs.getTimestamp("received_at") != null);
+                    }
+                    return received;
+                },
+                args.toArray());
+    }
+
+    private Map<Long, Long> currentVersions(CustodyStage stage, Set<Long> ids) {
+        return entityManager.createQuery("SELECT e.id, e.version FROM " + entityName(stage) + " e WHERE e.id IN :ids",
+                        Object[].class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+    }
+
+    private static String entityName(CustodyStage stage) {
+        return switch (stage) {
+            case FARMER -> FarmerCrop.class.getSimpleName();
+            case DISTRIBUTOR -> DistributorCrop.class.getSimpleName();
+            case RETAILER -> RetailerCrop.class.getSimpleName();
+            case CONSUMER -> throw new IllegalArgumentException("Consumer purchases cannot be transferred");
+        };
+    }
+
+    // Takes ids from the same pooled generator Hibernate uses when it persists these entities
+    private Long nextId(CustodyStage stage) {
+        Class<?> entityType = switch (stage) {
+            case DISTRIBUTOR -> DistributorCrop.class;
+            case RETAILER -> RetailerCrop.class;
+            case CONSUMER -> ConsumerPurchase.class;
+            case FARMER -> FarmerCrop.class;
+        };
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(entityType).getGenerator();
+        return (Long) generator.generate(session, null, null, EventType.INSERT);
+    }
+
+    private static String insertSql(CustodyStage toStage) {
+        return switch (toStage) {
+            case DISTRIBUTOR -> RECEIVE_FROM_FARMER_SQL;
+            case RETAILER -> RECEIVE_FROM_DISTRIBUTOR_SQL;
+            case CONSUMER -> RECEIVE_FROM_RETAILER_SQL;
+            case FARMER -> throw new IllegalArgumentException("Farmers cannot receive lots");
+        };
+    }
+
+    // A row that no longer matches its checked version was edited mid-transfer
+    private static void requireAll(int[] counts) {
+        for (int count : counts) {
+            if (count == 0) {
+                throw new OptimisticLockingFailureException("A lot changed while it was being transferred");
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.farmchainx.service;
+
+import com.farmchainx.dto.ExpiryAlert;
+import com.farmchainx.event.ExpiryAlertEvent;
+import com.farmchainx.model.CustodyStage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Delivers expiring-soon alerts to each owner's alert list. Runs in the alert run's transaction, so the alerts and
+ * the scheduler's cursor are committed together.
+ */
+@Component
+public class ExpiryAlertListener {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO expiry_alerts (owner_id, stage, lot_id, name, crop_type, expiry_date, horizon, alerted_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Period lookback;
+
+    public ExpiryAlertListener(JdbcTemplate jdbcTemplate,
+                               @Value("${farmchainx.expiry.lookback:P30D}") Period lookback) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lookback = lookback;
+    }
+
+    @EventListener
+    public void onExpiryAlert(ExpiryAlertEvent event) {
+        Timestamp alertedAt = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        Date horizon = Date.valueOf(event.horizon());
+        jdbcTemplate.batchUpdate(INSERT_SQL, event.lots().stream()
+                .map(lot -> new Object[]{event.ownerId(), lot.stage().name(), lot.id(), lot.name(), lot.cropType(),
+                        Date.valueOf(lot.expiryDate()), horizon, alertedAt})
+                .toList());
+    }
+
+    // The owner's most recent alerts, newest first
+    public List<ExpiryAlert> recent(Long ownerId, int limit) {
+        return jdbcTemplate.query("""
+                        SELECT id, stage, lot_id, name, crop_type, expiry_date, horizon, alerted_at FROM expiry_alerts
+                        WHERE owner_id = ? ORDER BY id DESC LIMIT ?
+                        """,
+                (rs, rowNum) -> new ExpiryAlert(rs.getLong("id"), CustodyStage.valueOf(rs.getString("stage")),
+                        rs.getLong("lot_id"), rs.getString("name"), rs.getString("crop_type"),
+                        rs.getDate("expiry_date").toLocalDate(), rs.getDate("horizon").toLocalDate(),
+                        rs.getTimestamp("alerted_at").toLocalDateTime()),
+                ownerId, limit);
+    }
+
+    // Alerts for lots the expiry index has written off
+    @Scheduled(fixedDelayString = "${farmchainx.expiry.purge-interval:PT1H}")
+    @Transactional
+    public void purgeWrittenOff() {
+        jdbcTemplate.update("DELETE FROM expiry_alerts WHERE expiry_date < ?",
+                Date.valueOf(LocalDate.now().minus(lookback)));
+    }
+}
@@ -0,0 +1,358 @@
+package com.farmchainx.service;
+
+import com.farmchainx.dto.ExpiryLot;
+import com.farmchainx.event.CropChangedEvent;
+import com.farmchainx.event.ExpiryAlertEvent;
+import com.farmchainx.model.CustodyStage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Time-ordered index of the lots distributors and retailers hold, for first-expired-first-out pick lists and
+ * expiring-soon alerts. Lots live in skip lists sorted by expiry date, one across all owners and one per owner,
+ * so a pick list, an expiring-soon query and each insert or removal is a logarithmic seek plus the lots returned.
+ *
+ * The index is seeded once with a range scan on the indexed expiry_date column and then follows CropChangedEvent,
+ * for this instance's writes and, through CustodyEventFeed, other instances', re-reading changed rows in one query
+ * per stage on the next refresh. A distributor lot leaves the index once it
+ * has been sent to a retailer. Alert runs only walk the part of the global list that has come within the horizon
+ * since the previous run, so no run scans whole tables. The last lot alerted is kept in expiry_alert_cursor, written
+ * in the same transaction as the alerts, so a restart neither repeats nor skips alerts. Lots leave the index as they
+ * fall outside the lookback, day by day.
+ */
+@Service
+public class ExpiryScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ExpiryScheduler.class);
+
+    private static final Map<CustodyStage, String> STAGE_QUERIES = Map.of(
+            CustodyStage.DISTRIBUTOR, """
+                    SELECT c.id, c.user.id, c.name, c.cropType, c.expiryDate FROM DistributorCrop c
+                    WHERE c.expiryDate IS NOT NULL AND c.sentToRetailer IS NULL AND %s
+                    """,
+            CustodyStage.RETAILER, """
+                    SELECT c.id, c.user.id, c.name, c.cropType, c.expiryDate FROM RetailerCrop c
+                    WHERE c.expiryDate IS NOT NULL AND %s
+                    """);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate alertTransaction;
+    private final Counter alertedLots;
+    private final Period lookback;
+    private final Period alertHorizon;
+
+    private final NavigableSet<ExpiryLot> upcoming = new ConcurrentSkipListSet<>();
+    private final Map<Long, NavigableSet<ExpiryLot>> byOwner = new ConcurrentHashMap<>();
+    private final Map<LotKey, ExpiryLot> lots = new ConcurrentHashMap<>();
+    private final Map<LotKey, CropChangedEvent.Type> pending = new ConcurrentHashMap<>();
+    private volatile boolean seeding;
+    private volatile LocalDate writtenOffBefore;
+
+    // Guarded by this: the last lot alerted, and lots that landed behind it and still need alerting
+    private ExpiryLot alertedThrough;
+    private final List<ExpiryLot> lateAlerts = new ArrayList<>();
+
+    public ExpiryScheduler(ApplicationEventPublisher eventPublisher,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${farmchainx.expiry.lookback:P30D}") Period lookback,
+                           @Value("${farmchainx.expiry.alert-horizon:P3D}") Period alertHorizon) {
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.alertTransaction = new TransactionTemplate(transactionManager);
+        this.lookback = lookback;
+        this.alertHorizon = alertHorizon;
+        this.alertedLots = meterRegistry.counter("farmchainx.expiry.alerts");
+        meterRegistry.gaugeCollectionSize("farmchainx.expiry.index.size", List.of(), upcoming);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        seeding = true;
+        try {
+            // Lots that spoiled long ago are written off, not picked
+            LocalDate from = LocalDate.now().minus(lookback);
+            writtenOffBefore = from;
+            synchronized (this) {
+                alertedThrough = loadCursor();
+            }
+            transactionTemplate.executeWithoutResult(status -> STAGE_QUERIES.forEach((stage, jpql) ->
+                    entityManager.createQuery(String.format(jpql, "c.expiryDate >= :from"), Object[].class)
+                            .setParameter("from", from)
+                            .getResultStream()
+                            .forEach(row -> upsert(lot(stage, row)))));
+            // Seeding puts every lot behind the cursor up for a late alert; keep only those changed into place
+            // after their alert was delivered, or never alerted at all
+            if (alertedThrough != null) {
+                Set<ExpiryLot> delivered = delivered(from, alertedThrough.expiryDate());
+                synchronized (this) {
+                    lateAlerts.removeIf(lot -> delivered.contains(alertKey(lot.stage(), lot.id(), lot.expiryDate())));
+                }
+            }
+            logger.info("Expiry index seeded with {} lots", lots.size());
+        } finally {
+            seeding = false;
+        }
+        refresh();
+    }
+
+    @EventListener
+    public void onCropChanged(CropChangedEvent event) {
+        if (STAGE_QUERIES.containsKey(event.stage())) {
+            pending.put(new LotKey(event.stage(), event.id()), event.type());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${farmchainx.expiry.refresh-interval:PT0.2S}")
+    public void refresh() {
+        if (seeding) {
+            return;
+        }
+        writeOff();
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<CustodyStage, List<Long>> changed = new HashMap<>();
+        for (LotKey key : List.copyOf(pending.keySet())) {
+            CropChangedEvent.Type type = pending.remove(key);
+            if (type == CropChangedEvent.Type.DELETED) {
+                remove(key);
+            } else if (type != null) {
+                changed.computeIfAbsent(key.stage(), stage -> new ArrayList<>()).add(key.id());
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> changed.forEach((stage, ids) -> {
+            Set<Long> found = new HashSet<>();
+            entityManager.createQuery(String.format(STAGE_QUERIES.get(stage), "c.id IN :ids"), Object[].class)
+                    .setParameter("ids", ids)
+                    .getResultStream()
+                    .forEach(row -> {
+                        ExpiryLot lot = lot(stage, row);
+                        upsert(lot);
+                        found.add(lot.id());
+                    });
+            // Rows that no longer qualify (sent on, expiry cleared, deleted since) leave the index
+            ids.stream().filter(id -> !found.contains(id)).forEach(id -> remove(new LotKey(stage, id)));
+        }));
+    }
+
+    /**
+     * Publishes one ExpiryAlertEvent per owner for lots that came within the horizon since the last run. Lots
+     * already past their date when first seen are included, so nothing in stock goes unreported.
+     *
+     * A run holds the expiry_alert_lock row until it commits, so runs on several instances take turns. Each carries
+     * on from the cursor the previous run committed; when another instance made that run, the lots behind the
+     * cursor are checked against the delivered alerts once, as at startup.
+     */
+    @Scheduled(fixedDelayString = "${farmchainx.expiry.alert-interval:PT5M}",
+            initialDelayString = "${farmchainx.expiry.alert-interval:PT5M}")
+    public void alert() {
+        LocalDate horizon = LocalDate.now().plus(alertHorizon);
+        ExpiryLot through = bound(horizon);
+        Run run = new Run();
+        try {
+            alertTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.queryForObject("SELECT id FROM expiry_alert_lock WHERE id = 1 FOR UPDATE", Integer.class);
+                claim(run, loadCursor(), through);
+                if (run.due.isEmpty()) {
+                    return;
+                }
+                // Late lots another run has already delivered at their current date
+                Set<ExpiryLot> delivered = run.late.isEmpty() ? Set.of()
+                        : delivered(run.late.get(0).expiryDate(), run.late.get(run.late.size() - 1).expiryDate());
+                run.late.stream().filter(lot -> delivered.contains(alertKey(lot.stage(), lot.id(), lot.expiryDate())))
+                        .forEach(run.due::remove);
+                run.due.forEach(lot -> run.perOwner.computeIfAbsent(lot.ownerId(), owner -> new ArrayList<>()).add(lot));
+                run.perOwner.forEach((owner, ownerLots) ->
+                        eventPublisher.publishEvent(new ExpiryAlertEvent(owner, horizon, ownerLots)));
+                if (run.cursor != null && (run.previous == null || run.cursor.compareTo(run.previous) != 0)) {
+                    saveCursor(run.cursor);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Nothing was delivered, so the next run alerts the same lots
+            synchronized (this) {
+                alertedThrough = run.previous;
+                run.late.stream().filter(lot -> lot.equals(lots.get(new LotKey(lot.stage(), lot.id()))))
+                        .forEach(lateAlerts::add);
+            }
+            throw e;
+        }
+        if (run.due.isEmpty()) {
+            return;
+        }
+        alertedLots.increment(run.due.size());
+        logger.info("Expiry alerts: {} lots for {} owners expire by {}", run.due.size(), run.perOwner.size(), horizon);
+    }
+
+    // The owner's stock, earliest expiry first
+    public List<ExpiryLot> pickList(Long ownerId, int limit) {
+        NavigableSet<ExpiryLot> stock = byOwner.get(ownerId);
+        return stock == null ? List.of() : stock.stream().limit(limit).toList();
+    }
+
+    // The owner's lots expiring on or before today plus the given number of days, including already expired ones
+    public List<ExpiryLot> expiringWithin(Long ownerId, int days, int limit) {
+        NavigableSet<ExpiryLot> stock = byOwner.get(ownerId);
+        if (stock == null) {
+            return List.of();
+        }
+        return stock.headSet(bound(LocalDate.now().plusDays(days)), true).stream().limit(limit).toList();
+    }
+
+    // Lots past the lookback are written off the day they fall outside it, as seed() would leave them out
+    private void writeOff() {
+        LocalDate from = LocalDate.now().minus(lookback);
+        if (from.equals(writtenOffBefore)) {
+            return;
+        }
+        List<ExpiryLot> writtenOff = List.copyOf(upcoming.headSet(bound(from.minusDays(1)), true));
+        writtenOff.forEach(lot -> remove(new LotKey(lot.stage(), lot.id())));
+        writtenOffBefore = from;
+        if (!writtenOff.isEmpty()) {
+            logger.info("Expiry index wrote off {} lots that expired before {}", writtenOff.size(), from);
+        }
+    }
+
+    // Takes the lots due up to the given bound off the index, starting from the committed cursor
+    private synchronized void claim(Run run, ExpiryLot committed, ExpiryLot through) {
+        if (committed == null ? alertedThrough != null
+                : alertedThrough == null || committed.compareTo(alertedThrough) != 0) {
+            // Another instance alerted since this one last did
+            alertedThrough = committed;
+            lateAlerts.clear();
+            if (committed != null) {
+                lateAlerts.addAll(upcoming.headSet(committed, true));
+            }
+        }
+        run.previous = alertedThrough;
+        run.late = List.copyOf(new TreeSet<>(lateAlerts));
+        NavigableSet<ExpiryLot> window = run.previous == null
+                ? upcoming.headSet(through, true)
+                : upcoming.subSet(run.previous, false, through, true);
+        // A lot can be both late and in the window after a failed run was rolled back
+        run.due.addAll(run.late);
+        run.due.addAll(window);
+        lateAlerts.clear();
+        if (!window.isEmpty()) {
+            alertedThrough = window.last();
+        }
+        run.cursor = alertedThrough;
+    }
+
+    private ExpiryLot loadCursor() {
+        return jdbcTemplate.query("SELECT stage, lot_id, expiry_date FROM expiry_alert_cursor WHERE id = 1",
+                        (rs, rowNum) -> alertKey(CustodyStage.valueOf(rs.getString("stage")), rs.getLong("lot_id"),
+                                rs.getDate("expiry_date").toLocalDate()))
+                .stream().findFirst().orElse(null);
+    }
+
+    // Delivered alerts for lots expiring between the given dates, as alert keys
+    private Set<ExpiryLot> delivered(LocalDate from, LocalDate to) {
+        return new HashSet<>(jdbcTemplate.query(
+                "SELECT stage, lot_id, expiry_date FROM expiry_alerts WHERE expiry_date BETWEEN ? AND ?",
+                (rs, rowNum) -> alertKey(CustodyStage.valueOf(rs.getString("stage")), rs.getLong("lot_id"),
+                        rs.getDate("expiry_date").toLocalDate()),
+                Date.valueOf(from), Date.valueOf(to)));
+    }
+
+    private void saveCursor(ExpiryLot cursor) {
+        Object[] args = {cursor.stage().name(), cursor.id(), Date.valueOf(cursor.expiryDate())};
+        if (jdbcTemplate.update("UPDATE expiry_alert_cursor SET stage = ?, lot_id = ?, expiry_date = ? WHERE id = 1",
+                args) == 0) {
+            jdbcTemplate.update("INSERT INTO expiry_alert_cursor (id, stage, lot_id, expiry_date) VALUES (1, ?, ?, ?)",
+                    args);
+        }
+    }
+
+    private synchronized void upsert(ExpiryLot lot) {
+        ExpiryLot previous = lots.get(new LotKey(lot.stage(), lot.id()));
+        boolean alerted = previous != null && alertedThrough != null && previous.compareTo(alertedThrough) <= 0
+                && !lateAlerts.contains(previous);
+        remove(new LotKey(lot.stage(), lot.id()));
+
+        lots.put(new LotKey(lot.stage(), lot.id()), lot);
+        upcoming.add(lot);
+        byOwner.computeIfAbsent(lot.ownerId(), owner -> new ConcurrentSkipListSet<>()).add(lot);
+        // A lot that lands behind the alert cursor would be skipped by the next run; an edit that leaves an
+        // already alerted lot there must not alert it twice
+        if (alertedThrough != null && lot.compareTo(alertedThrough) <= 0
+                && !(alerted && previous.expiryDate().equals(lot.expiryDate()))) {
+            lateAlerts.add(lot);
+        }
+    }
+
+    private synchronized void remove(LotKey key) {
+        ExpiryLot previous = lots.remove(key);
+        if (previous == null) {
+            return;
+        }
+        upcoming.remove(previous);
+        lateAlerts.remove(previous);
+        NavigableSet<ExpiryLot> stock = byOwner.get(previous.ownerId());
+        if (stock != null) {
+            stock.remove(previous);
+        }
+    }
+
+    // Sorts after every lot expiring on the given date
+    private static ExpiryLot bound(LocalDate date) {
+        return new ExpiryLot(CustodyStage.CONSUMER, Long.MAX_VALUE, null, null, null, date);
+    }
+
+    private static ExpiryLot lot(CustodyStage stage, Object[] row) {
+        return new ExpiryLot(stage, (Long) row[0], (Long) row[1], (String) row[2], (String) row[3], (LocalDate) row[4]);
+    }
+
+    // Identifies a lot at a given expiry date, as in the cursor and in delivered alerts
+    private static ExpiryLot alertKey(CustodyStage stage, Long id, LocalDate expiryDate) {
+        return new ExpiryLot(stage, id, null, null, null, expiryDate);
+    }
+
+    private record LotKey(CustodyStage stage, Long id) {
+    }
+
+    // One alert run: the cursor it started from and the one it leaves, and the lots it alerts
+    private static final class Run {
+        private ExpiryLot previous;
+        private ExpiryLot cursor;
+        private List<ExpiryLot> late = List.of();
+        private final NavigableSet<ExpiryLot> due = new TreeSet<>();
+        private final Map<Long, List<ExpiryLot>> perOwner = new LinkedHashMap<>();
+    }
+}
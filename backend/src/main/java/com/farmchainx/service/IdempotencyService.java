@@ -0,0 +1,263 @@
+package com.farmchainx.service;
+
+import com.farmchainx.model.IdempotencyKey;
+import com.farmchainx.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Makes mutating requests safe to retry. The first request with a given Idempotency-Key claims the key by
+ * inserting its row; the primary key is the only coordination, so requests with different keys never wait on
+ * each other. Successful responses are stored against the key and replayed to later requests with the same
+ * key instead of running the action again, together with the headers in REPLAYED_RESPONSE_HEADERS. Finished
+ * keys are also kept in memory, so most replays never reach the database.
+ *
+ * A claim holds a lease. If the process running the request dies, a retry with the same key and body may take
+ * the key over once the lease has run out, so the lease must outlast the slowest mutating request.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final List<String> REPLAYED_RESPONSE_HEADERS =
+            List.of(HttpHeaders.ETAG, HttpHeaders.LOCATION, HttpHeaders.LAST_MODIFIED);
+    private static final TypeReference<Map<String, String>> HEADERS_TYPE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Cache<String, IdempotencyKey> completed;
+
+    private final Duration ttl;
+
+    private final Duration lease;
+
+    public IdempotencyService(PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${farmchainx.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${farmchainx.idempotency.lease:PT2M}") Duration lease,
+                              @Value("${farmchainx.idempotency.cache.max-size:100000}") long maxSize) {
+        // Claims and results commit on their own, before and after the action's transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = ttl;
+        this.lease = lease;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotencyKeys");
+    }
+
+    /**
+     * Runs {@code action} once per (user, key). Without a key the action simply runs.
+     *
+     * @param operation identifies the endpoint, so a key reused on another endpoint is rejected
+     * @param request   the request payload, fingerprinted to reject a key reused with a different body
+     */
+    public ResponseEntity<?> execute(Long userId, String key, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String keyHash = digest(userId + ":" + key);
+        String requestHash = digest(operation + ":" + toJson(request));
+
+        IdempotencyKey stored = completed.getIfPresent(keyHash);
+        if (stored == null) {
+            stored = claim(keyHash, requestHash);
+            if (stored == null) {
+                return run(keyHash, requestHash, action);
+            }
+        }
+        return replay(stored, requestHash);
+    }
+
+    @Scheduled(fixedDelayString = "${farmchainx.idempotency.purge-interval:PT10M}")
+    @Transactional
+    public void purgeExpired() {
+        idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    // Returns null when this request now owns the key, otherwise the row that already holds it
+    private IdempotencyKey claim(String keyHash, String requestHash) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    entityManager.persist(new IdempotencyKey(keyHash, requestHash, now, now.plus(ttl),
+                            now.plus(lease)));
+                    entityManager.flush();
+                });
+                return null;
+            } catch (DataIntegrityViolationException | PersistenceException e) {
+                IdempotencyKey existing = idempotencyKeyRepository.findById(keyHash).orElse(null);
+                if (existing != null && existing.getExpiresAt().isAfter(now)) {
+                    // The request that claimed the key died without finishing; this retry runs it instead
+                    if (isAbandoned(existing, requestHash, now) && takeOver(keyHash, now)) {
+                        return null;
+                    }
+                    return existing;
+                }
+                // Expired but not yet purged, or purged in between: free the key and claim it again
+                release(keyHash);
+            }
+        }
+        throw new IllegalStateException("Could not claim " + KEY_HEADER);
+    }
+
+    private ResponseEntity<?> run(String keyHash, String requestHash, Supplier<ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(keyHash);
+            throw e;
+        }
+
+        // Failures are not remembered, so the client can fix the request and retry with the same key
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            release(keyHash);
+            return response;
+        }
+
+        int statusCode = response.getStatusCode().value();
+        String body = response.getBody() != null ? toJson(response.getBody()) : null;
+        String headers = replayedHeaders(response.getHeaders());
+        transactionTemplate.executeWithoutResult(status ->
+                idempotencyKeyRepository.complete(keyHash, statusCode, body, headers));
+
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyKey done = new IdempotencyKey(keyHash, requestHash, now, now.plus(ttl), null);
+        done.setStatusCode(statusCode);
+        done.setResponseBody(body);
+        done.setResponseHeaders(headers);
+        completed.put(keyHash, done);
+        return response;
+    }
+
+    private ResponseEntity<?> replay(IdempotencyKey stored, String requestHash) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(KEY_HEADER + " was already used for a different request");
+        }
+        if (stored.getStatusCode() == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("A request with this " + KEY_HEADER + " is still in progress");
+        }
+
+        completed.put(stored.getKeyHash(), stored);
+        ResponseEntity.BodyBuilder replayed = ResponseEntity.status(stored.getStatusCode())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.getResponseHeaders() != null) {
+            fromJson(stored.getResponseHeaders()).forEach(replayed::header);
+        }
+        if (stored.getResponseBody() == null) {
+            return replayed.build();
+        }
+        return replayed.contentType(MediaType.APPLICATION_JSON).body(stored.getResponseBody());
+    }
+
+    private static boolean isAbandoned(IdempotencyKey key, String requestHash, LocalDateTime now) {
+        return key.getStatusCode() == null
+                && key.getRequestHash().equals(requestHash)
+                && (key.getLockedUntil() == null || key.getLockedUntil().isBefore(now));
+    }
+
+    private boolean takeOver(String keyHash, LocalDateTime now) {
+        Integer updated = transactionTemplate.execute(status ->
+                idempotencyKeyRepository.takeOver(keyHash, now, now.plus(lease)));
+        return updated != null && updated == 1;
+    }
+
+    private String replayedHeaders(HttpHeaders headers) {
+        Map<String, String> kept = new LinkedHashMap<>();
+        for (String name : REPLAYED_RESPONSE_HEADERS) {
+            String value = headers.getFirst(name);
+            if (value != null) {
+                kept.put(name, value);
+            }
+        }
+        return kept.isEmpty() ? null : toJson(kept);
+    }
+
+    private Map<String, String> fromJson(String headers) {
+        try {
+            return objectMapper.readValue(headers, HEADERS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response headers are not valid JSON", e);
+        }
+    }
+
+    private void release(String keyHash) {
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteById(keyHash));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    // 43 characters: unpadded base64url of SHA-256
+    private static String digest(String value) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.farmchainx.service;
+
+import com.farmchainx.dto.InclusionProof;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * SHA-256 Merkle tree over hex event hashes. Leaves and inner nodes are hashed with different prefixes so a
+ * leaf can never pass for a node, and an odd node is carried up unchanged rather than paired with itself.
+ */
+public final class MerkleTree {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final byte LEAF = 0x00;
+    private static final byte NODE = 0x01;
+
+    private MerkleTree() {
+    }
+
+    public static String root(List<String> hashes) {
+        List<byte[]> level = leaves(hashes);
+        while (level.size() > 1) {
+            level = parents(level);
+        }
+        return HEX.formatHex(level.get(0));
+    }
+
+    public static List<InclusionProof.Step> path(List<String> hashes, int index) {
+        List<InclusionProof.Step> path = new ArrayList<>();
+        List<byte[]> level = leaves(hashes);
+        while (level.size() > 1) {
+            if (index % 2 == 1) {
+                path.add(new InclusionProof.Step(HEX.formatHex(level.get(index - 1)), InclusionProof.Side.LEFT));
+            } else if (index + 1 < level.size()) {
+                path.add(new InclusionProof.Step(HEX.formatHex(level.get(index + 1)), InclusionProof.Side.RIGHT));
+            }
+            level = parents(level);
+            index /= 2;
+        }
+        return path;
+    }
+
+    private static List<byte[]> leaves(List<String> hashes) {
+        if (hashes.isEmpty()) {
+            throw new IllegalArgumentException("A Merkle tree needs at least one leaf");
+        }
+        List<byte[]> leaves = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            leaves.add(sha256(LEAF, HEX.parseHex(hash), null));
+        }
+        return leaves;
+    }
+
+    private static List<byte[]> parents(List<byte[]> level) {
+        List<byte[]> parents = new ArrayList<>((level.size() + 1) / 2);
+        for (int i = 0; i < level.size(); i += 2) {
+            parents.add(i + 1 < level.size() ? sha256(NODE, level.get(i), level.get(i + 1)) : level.get(i));
+        }
+        return parents;
+    }
+
+    private static byte[] sha256(byte prefix, byte[] left, byte[] right) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(prefix);
+            sha256.update(left);
+            if (right != null) {
+                sha256.update(right);
+            }
+            return sha256.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
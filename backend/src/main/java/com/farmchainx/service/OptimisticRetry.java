@@ -0,0 +1,66 @@
+package com.farmchainx.service;
+
+import com.farmchainx.model.CustodyStage;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a server-side read-modify-write when it loses an optimistic lock race, with jittered exponential
+ * backoff. The action must run in its own transaction and re-read what it changes on every attempt.
+ * Also owns the version-check counters; conflicts divided by checks gives the contention rate per stage.
+ */
+@Component
+public class OptimisticRetry {
+
+    static final String CHECKS_METRIC = "farmchainx.crops.version.checks";
+    static final String CONFLICTS_METRIC = "farmchainx.crops.version.conflicts";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${farmchainx.optimistic-retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${farmchainx.optimistic-retry.initial-backoff-ms:20}")
+    private long initialBackoffMs;
+
+    public <T> T execute(CustodyStage stage, String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            recordCheck(stage, operation);
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                recordConflict(stage, operation);
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void recordCheck(CustodyStage stage, String operation) {
+        meterRegistry.counter(CHECKS_METRIC, "stage", stage.name(), "operation", operation).increment();
+    }
+
+    public void recordConflict(CustodyStage stage, String operation) {
+        meterRegistry.counter(CONFLICTS_METRIC, "stage", stage.name(), "operation", operation).increment();
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = initialBackoffMs << (attempt - 1);
+        try {
+            Thread.sleep(ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off after a version conflict", e);
+        }
+    }
+}
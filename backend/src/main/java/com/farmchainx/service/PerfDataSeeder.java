@@ -0,0 +1,219 @@
+package com.farmchainx.service;
+
+import com.farmchainx.dto.BatchIngestResponse;
+import com.farmchainx.dto.TransferResponse;
+import com.farmchainx.model.User;
+import com.farmchainx.model.UserRole;
+import com.farmchainx.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Fills an empty database with a reproducible supply chain for load tests. Farmer crops go through
+ * CropBatchService and a share of each stage's lots is handed on through CustodyTransferService, so rows,
+ * custody links and ledger events are written exactly as in production. Runs before the search and expiry
+ * indexes seed, so they start out covering the generated data.
+ *
+ * Every seeded user signs in as {role}{n}@perf.farmchainx.test, n from 1, with the configured password.
+ */
+@Component
+@Profile("perf")
+public class PerfDataSeeder implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PerfDataSeeder.class);
+
+    public static final String EMAIL_DOMAIN = "perf.farmchainx.test";
+
+    private static final int CHUNK = 1000;
+    private static final String[][] CROPS = {
+            {"Tomato", "Vegetable"}, {"Onion", "Vegetable"}, {"Potato", "Vegetable"}, {"Okra", "Vegetable"},
+            {"Wheat", "Grain"}, {"Basmati Rice", "Grain"}, {"Millet", "Grain"},
+            {"Alphonso Mango", "Fruit"}, {"Banana", "Fruit"}, {"Grapes", "Fruit"}, {"Pomegranate", "Fruit"},
+            {"Turmeric", "Spice"}, {"Chilli", "Spice"}};
+    private static final String[] VARIETIES = {"", "Organic ", "Hybrid ", "Heirloom "};
+    private static final String[] SOILS = {"Black cotton soil", "Red soil", "Alluvial soil", "Laterite soil"};
+    private static final String[] PESTICIDES = {"None", "Neem oil", "Chlorpyrifos", "Bio-pesticide"};
+    private static final String[] LOCATIONS = {"Nashik, Maharashtra", "Pune, Maharashtra", "Indore, Madhya Pradesh",
+            "Guntur, Andhra Pradesh", "Ludhiana, Punjab", "Mysuru, Karnataka", "Anand, Gujarat", "Salem, Tamil Nadu"};
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private StakeholderIdAllocator stakeholderIdAllocator;
+
+    @Autowired
+    private CropBatchService cropBatchService;
+
+    @Autowired
+    private CustodyTransferService custodyTransferService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${farmchainx.perf.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${farmchainx.perf.seed.password:perf-password}")
+    private String password;
+
+    @Value("${farmchainx.perf.seed.farmers:50}")
+    private int farmers;
+
+    @Value("${farmchainx.perf.seed.distributors:10}")
+    private int distributors;
+
+    @Value("${farmchainx.perf.seed.retailers:20}")
+    private int retailers;
+
+    @Value("${farmchainx.perf.seed.consumers:100}")
+    private int consumers;
+
+    @Value("${farmchainx.perf.seed.crops-per-farmer:200}")
+    private int cropsPerFarmer;
+
+    @Value("${farmchainx.perf.seed.distributor-share:0.6}")
+    private double distributorShare;
+
+    @Value("${farmchainx.perf.seed.retailer-share:0.6}")
+    private double retailerShare;
+
+    @Value("${farmchainx.perf.seed.consumer-share:0.5}")
+    private double consumerShare;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (userRepository.count() > 0) {
+            logger.info("Database already has users, skipping perf seed");
+            return;
+        }
+        long start = System.nanoTime();
+        Random random = new Random(randomSeed);
+        // One hash for everyone: encoding it per user would dominate the seed time
+        String passwordHash = passwordEncoder.encode(password);
+
+        List<User> farmerUsers = createUsers(UserRole.FARMER, farmers, passwordHash, random);
+        List<User> distributorUsers = createUsers(UserRole.DISTRIBUTOR, distributors, passwordHash, random);
+        List<User> retailerUsers = createUsers(UserRole.RETAILER, retailers, passwordHash, random);
+        List<User> consumerUsers = createUsers(UserRole.CONSUMER, consumers, passwordHash, random);
+
+        int farmerCrops = 0;
+        for (User farmer : farmerUsers) {
+            for (int from = 0; from < cropsPerFarmer; from += CHUNK) {
+                int count = Math.min(CHUNK, cropsPerFarmer - from);
+                BatchIngestResponse response = cropBatchService.ingest(farmer, cropPayloads(count, random));
+                farmerCrops += response.inserted();
+            }
+        }
+
+        List<Long> farmerLots = jdbcTemplate.queryForList("SELECT id FROM farmer_crops ORDER BY id", Long.class);
+        Map<Long, User> owners = new HashMap<>();
+        farmerUsers.forEach(user -> owners.put(user.getId(), user));
+        distributorUsers.forEach(user -> owners.put(user.getId(), user));
+        List<Long> distributorLots = handOn("farmer_crops", farmerLots, distributorShare, distributorUsers, owners, random);
+        List<Long> retailerLots = handOn("distributor_crops", distributorLots, retailerShare, retailerUsers, owners, random);
+        List<Long> purchases = handOn("retailer_crops", retailerLots, consumerShare, consumerUsers, owners, random);
+
+        logger.info("Perf seed: {} users, {} farmer crops, {} distributor lots, {} retailer lots, {} purchases in {} ms",
+                farmerUsers.size() + distributorUsers.size() + retailerUsers.size() + consumerUsers.size(),
+                farmerCrops, distributorLots.size(), retailerLots.size(), purchases.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<User> createUsers(UserRole role, int count, String passwordHash, Random random) {
+        String label = role.name().toLowerCase();
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            User user = new User(label + i + "@" + EMAIL_DOMAIN, passwordHash,
+                    "Perf " + role.name().charAt(0) + label.substring(1) + " " + i,
+                    LOCATIONS[random.nextInt(LOCATIONS.length)], role);
+            if (role == UserRole.FARMER) {
+                user.setFarmerId(stakeholderIdAllocator.nextFarmerId());
+            } else if (role == UserRole.DISTRIBUTOR) {
+                user.setDistributorId(stakeholderIdAllocator.nextDistributorId());
+            }
+            users.add(user);
+        }
+        return userRepository.saveAll(users);
+    }
+
+    // Harvests over the last two months with shelf lives from days to months, so some stock has already expired
+    private static List<Map<String, Object>> cropPayloads(int count, Random random) {
+        LocalDate today = LocalDate.now();
+        List<Map<String, Object>> payloads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] crop = CROPS[random.nextInt(CROPS.length)];
+            LocalDate harvested = today.minusDays(random.nextInt(60));
+            payloads.add(Map.of(
+                    "name", VARIETIES[random.nextInt(VARIETIES.length)] + crop[0],
+                    "cropType", crop[1],
+                    "harvestDate", harvested.toString(),
+                    "expiryDate", harvested.plusDays(5 + random.nextInt(85)).toString(),
+                    "soilType", SOILS[random.nextInt(SOILS.length)],
+                    "pesticidesUsed", PESTICIDES[random.nextInt(PESTICIDES.length)]));
+        }
+        return payloads;
+    }
+
+    // Transfers a random share of the lots, dealt round robin to the receivers, and returns the new lot ids. Each
+    // owner dispatches the lots first, except retailers, whose stock consumers buy directly.
+    private List<Long> handOn(String table, List<Long> lots, double share, List<User> receivers,
+                              Map<Long, User> owners, Random random) {
+        if (receivers.isEmpty()) {
+            return List.of();
+        }
+        List<List<Long>> perReceiver = new ArrayList<>(receivers.size());
+        receivers.forEach(receiver -> perReceiver.add(new ArrayList<>()));
+        int dealt = 0;
+        for (Long lot : lots) {
+            if (random.nextDouble() < share) {
+                perReceiver.get(dealt++ % receivers.size()).add(lot);
+            }
+        }
+
+        boolean dispatched = receivers.get(0).getRole() != UserRole.CONSUMER;
+        Map<Long, Long> ownerOf = new HashMap<>();
+        if (dispatched) {
+            jdbcTemplate.query("SELECT id, user_id FROM " + table,
+                    (RowCallbackHandler) rs -> ownerOf.put(rs.getLong("id"), rs.getLong("user_id")));
+        }
+
+        List<Long> received = new ArrayList<>(dealt);
+        for (int r = 0; r < receivers.size(); r++) {
+            User receiver = receivers.get(r);
+            List<Long> ids = perReceiver.get(r);
+            for (int from = 0; from < ids.size(); from += CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(from + CHUNK, ids.size()));
+                if (dispatched) {
+                    chunk.stream()
+                            .collect(Collectors.groupingBy(ownerOf::get, LinkedHashMap::new, Collectors.toList()))
+                            .forEach((owner, ownerLots) ->
+                                    custodyTransferService.dispatch(owners.get(owner), receiver.getEmail(), ownerLots));
+                }
+                TransferResponse response = custodyTransferService.receive(receiver, chunk);
+                response.transfers().forEach(item -> received.add(item.toId()));
+            }
+        }
+        return received;
+    }
+}
@@ -0,0 +1,79 @@
+package com.farmchainx.service;
+
+import com.farmchainx.model.User;
+import com.farmchainx.model.UserRole;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// Principals by email. Entries are immutable snapshots and every lookup gets its own User built from one, so no
+// request thread ever sees an entity another request holds.
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, Principal> cache;
+
+    public PrincipalCache(@Value("${farmchainx.cache.principal.max-size:10000}") long maxSize,
+                          @Value("${farmchainx.cache.principal.ttl:PT5M}") Duration ttl,
+                          MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    public User get(String email, Function<String, User> loader) {
+        return cache.get(email, key -> Principal.of(loader.apply(key))).toUser();
+    }
+
+    public void invalidate(Long userId, String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+        // The entry may still be under the email the user had before a change; user updates are rare enough to
+        // look for it instead of keeping an index by id
+        if (userId != null) {
+            cache.asMap().values().removeIf(principal -> userId.equals(principal.id()));
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private record Principal(Long id, String email, String password, String name, String location, UserRole role,
+                             String farmerId, String distributorId, int tokenVersion) {
+
+        static Principal of(User user) {
+            return new Principal(user.getId(), user.getEmail(), user.getPassword(), user.getName(),
+                    user.getLocation(), user.getRole(), user.getFarmerId(), user.getDistributorId(),
+                    user.getTokenVersion());
+        }
+
+        User toUser() {
+            User user = new User(email, password, name, location, role);
+            user.setId(id);
+            user.setFarmerId(farmerId);
+            user.setDistributorId(distributorId);
+            user.setTokenVersion(tokenVersion);
+            return user;
+        }
+    }
+}
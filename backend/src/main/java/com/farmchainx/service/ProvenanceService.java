@@ -0,0 +1,144 @@
+package com.farmchainx.service;
+
+import com.farmchainx.dto.ScanResponse;
+import com.farmchainx.dto.TraceResponse;
+import com.farmchainx.model.CustodyStage;
+import com.farmchainx.repository.ConsumerPurchaseRepository;
+import com.farmchainx.repository.DistributorCropRepository;
+import com.farmchainx.repository.FarmerCropRepository;
+import com.farmchainx.repository.RetailerCropRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Walks custody links; CustodyTransferService writes them. A trace is two recursive queries over custody_links, one per direction,
+ * each following the indexed key of that direction, then one batched load per stage table; its cost grows with
+ * the length of the chain, not with the size of the stage tables.
+ */
+@Service
+public class ProvenanceService {
+
+    // Guards against a corrupted cycle; a real chain has at most one hop per stage
+    private static final int MAX_DEPTH = 16;
+
+    private static final String UPSTREAM_SQL = """
+            WITH RECURSIVE upstream (stage, id, depth) AS (
+                SELECT from_stage, from_id, 1 FROM custody_links WHERE to_stage = ?1 AND to_id = ?2
+                UNION ALL
+                SELECT l.from_stage, l.from_id, u.depth + 1
+                FROM custody_links l JOIN upstream u ON l.to_stage = u.stage AND l.to_id = u.id
+                WHERE u.depth < ?3
+            )
+            SELECT stage, id, depth FROM upstream ORDER BY depth DESC
+            """;
+
+    private static final String DOWNSTREAM_SQL = """
+            WITH RECURSIVE downstream (stage, id, from_stage, from_id, depth) AS (
+                SELECT to_stage, to_id, from_stage, from_id, 1 FROM custody_links WHERE from_stage = ?1 AND from_id = ?2
+                UNION ALL
+                SELECT l.to_stage, l.to_id, l.from_stage, l.from_id, d.depth + 1
+                FROM custody_links l JOIN downstream d ON l.from_stage = d.stage AND l.from_id = d.id
+                WHERE d.depth < ?3
+            )
+            SELECT stage, id, from_stage, from_id FROM downstream ORDER BY depth, id
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private FarmerCropRepository farmerCropRepository;
+
+    @Autowired
+    private DistributorCropRepository distributorCropRepository;
+
+    @Autowired
+    private RetailerCropRepository retailerCropRepository;
+
+    @Autowired
+    private ConsumerPurchaseRepository consumerPurchaseRepository;
+
+    @Transactional(readOnly = true)
+    public Optional<TraceResponse> trace(CustodyStage stage, Long id) {
+        List<TraceResponse.Step> chain = new ArrayList<>();
+
+        // Root first; each ancestor was handed on to the next one in the list
+        List<Object[]> upstream = query(UPSTREAM_SQL, stage, id);
+        for (int i = 0; i < upstream.size(); i++) {
+            Object[] parent = i > 0 ? upstream.get(i - 1) : null;
+            chain.add(step(upstream.get(i), parent));
+        }
+
+        Object[] parent = upstream.isEmpty() ? null : upstream.get(upstream.size() - 1);
+        chain.add(step(new Object[]{stage.name(), id}, parent));
+
+        for (Object[] row : query(DOWNSTREAM_SQL, stage, id)) {
+            chain.add(step(row, new Object[]{row[2], row[3]}));
+        }
+
+        Map<CustodyStage, Map<Long, ScanResponse>> records = load(chain);
+        if (!records.get(stage).containsKey(id)) {
+            return Optional.empty();
+        }
+
+        List<TraceResponse.Step> resolved = chain.stream()
+                .map(step -> new TraceResponse.Step(step.stage(), step.id(), step.fromStage(), step.fromId(),
+                        records.get(step.stage()).get(step.id())))
+                .toList();
+        return Optional.of(new TraceResponse(stage, id, resolved));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> query(String sql, CustodyStage stage, Long id) {
+        return entityManager.createNativeQuery(sql)
+                .setParameter(1, stage.name())
+                .setParameter(2, id)
+                .setParameter(3, MAX_DEPTH)
+                .getResultList();
+    }
+
+    private static TraceResponse.Step step(Object[] row, Object[] from) {
+        return new TraceResponse.Step(
+                CustodyStage.valueOf(row[0].toString().trim()), ((Number) row[1]).longValue(),
+                from != null ? CustodyStage.valueOf(from[0].toString().trim()) : null,
+                from != null ? ((Number) from[1]).longValue() : null,
+                null);
+    }
+
+    // One IN query per stage that appears in the chain
+    private Map<CustodyStage, Map<Long, ScanResponse>> load(List<TraceResponse.Step> chain) {
+        Map<CustodyStage, List<Long>> ids = chain.stream().collect(Collectors.groupingBy(TraceResponse.Step::stage,
+                () -> new EnumMap<>(CustodyStage.class), Collectors.mapping(TraceResponse.Step::id, Collectors.toList())));
+
+        Map<CustodyStage, Map<Long, ScanResponse>> records = new EnumMap<>(CustodyStage.class);
+        for (CustodyStage stage : CustodyStage.values()) {
+            List<Long> stageIds = ids.getOrDefault(stage, List.of());
+            records.put(stage, stageIds.isEmpty() ? Map.of() : load(stage, stageIds));
+        }
+        return records;
+    }
+
+    private Map<Long, ScanResponse> load(CustodyStage stage, Collection<Long> ids) {
+        List<ScanResponse> found = switch (stage) {
+            case FARMER -> farmerCropRepository.findAllById(ids).stream().map(ScanResponse::from).toList();
+            case DISTRIBUTOR -> distributorCropRepository.findAllById(ids).stream().map(ScanResponse::from).toList();
+            case RETAILER -> retailerCropRepository.findAllById(ids).stream().map(ScanResponse::from).toList();
+            case CONSUMER -> consumerPurchaseRepository.findAllById(ids).stream().map(ScanResponse::from).toList();
+        };
+        Map<Long, ScanResponse> byId = new HashMap<>();
+        found.forEach(record -> byId.put(record.id(), record));
+        return byId;
+    }
+}
@@ -0,0 +1,236 @@
+package com.farmchainx.service;
+
+import com.farmchainx.dto.ProvenanceKeyResponse;
+import com.farmchainx.dto.ProvenanceTokenResponse;
+import com.farmchainx.dto.ScanResponse;
+import com.farmchainx.dto.TraceResponse;
+import com.farmchainx.event.CropChangedEvent;
+import com.farmchainx.model.CustodyStage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Issues signed provenance tokens for QR labels, so a scanner holding the published public key can show where a
+ * lot came from without calling the backend. A token is "FCX1." followed by base64url of a binary body and its
+ * 64-byte Ed25519 signature over that body. The body is big-endian:
+ *
+ * <pre>
+ * u8 format (1) | 4 bytes key id | u32 issued at, epoch seconds
+ * str name | str cropType | str farmerId | str farmerLocation | u16 harvest day | u16 expiry day
+ * u8 hop count, then per hop from the farm to the labelled record: u8 stage | i64 id | u16 day | str holder
+ * </pre>
+ *
+ * str is a u8 byte length and UTF-8 bytes, cut to 255 bytes; days count from 1970-01-01 and 0 means unknown.
+ * A hop's day is the harvest, receipt or purchase date and its holder the farmer, distributor or retailer name.
+ */
+@Service
+public class ProvenanceTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(ProvenanceTokenService.class);
+
+    public static final String PREFIX = "FCX1.";
+    private static final String ALGORITHM = "Ed25519";
+    private static final int FORMAT = 1;
+    private static final int MAX_HOPS = 255;
+
+    private final ProvenanceService provenanceService;
+    private final PrivateKey privateKey;
+    private final PublicKey publicKey;
+    private final byte[] keyId;
+    private final Cache<TokenKey, Optional<String>> tokens;
+
+    public ProvenanceTokenService(ProvenanceService provenanceService,
+                                  MeterRegistry meterRegistry,
+                                  Environment environment,
+                                  @Value("${farmchainx.provenance-token.private-key:}") String privateKey,
+                                  @Value("${farmchainx.provenance-token.public-key:}") String publicKey,
+                                  @Value("${farmchainx.cache.provenance-tokens.max-size:50000}") long maxSize,
+                                  @Value("${farmchainx.cache.provenance-tokens.ttl:PT1H}") Duration ttl)
+            throws GeneralSecurityException {
+        this.provenanceService = provenanceService;
+
+        KeyPair keys = privateKey.isBlank() ? ephemeralKeys(environment) : decodeKeys(privateKey, publicKey);
+        this.privateKey = keys.getPrivate();
+        this.publicKey = keys.getPublic();
+        this.keyId = Arrays.copyOf(MessageDigest.getInstance("SHA-256").digest(this.publicKey.getEncoded()), 4);
+
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "provenanceTokens");
+    }
+
+    public Optional<String> token(CustodyStage stage, Long id) {
+        return tokens.get(new TokenKey(stage, id), this::issue);
+    }
+
+    // Drops whatever was cached for the records and signs them again from the current custody chain
+    public List<ProvenanceTokenResponse> reissue(CustodyStage stage, Collection<Long> ids) {
+        return ids.stream()
+                .distinct()
+                .map(id -> {
+                    TokenKey key = new TokenKey(stage, id);
+                    Optional<String> token = issue(key);
+                    tokens.put(key, token);
+                    return new ProvenanceTokenResponse(stage, id, token.orElse(null));
+                })
+                .toList();
+    }
+
+    public ProvenanceKeyResponse publicKey() {
+        return new ProvenanceKeyResponse(ALGORITHM, HexFormat.of().formatHex(keyId),
+                Base64.getEncoder().encodeToString(publicKey.getEncoded()));
+    }
+
+    @EventListener
+    public void onCropChanged(CropChangedEvent event) {
+        tokens.invalidate(new TokenKey(event.stage(), event.id()));
+    }
+
+    private Optional<String> issue(TokenKey key) {
+        Optional<TraceResponse> trace = provenanceService.trace(key.stage(), key.id());
+        if (trace.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // The label covers how the lot got here, not where it went afterwards
+        List<TraceResponse.Step> chain = trace.get().chain();
+        int self = 0;
+        while (chain.get(self).stage() != key.stage() || !chain.get(self).id().equals(key.id())) {
+            self++;
+        }
+        List<TraceResponse.Step> hops = chain.subList(Math.max(0, self + 1 - MAX_HOPS), self + 1);
+        ScanResponse record = chain.get(self).record();
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT);
+            out.write(keyId);
+            out.writeInt((int) Instant.now().getEpochSecond());
+            writeString(out, record.name());
+            writeString(out, record.cropType());
+            writeString(out, record.farmerId());
+            writeString(out, record.farmerLocation());
+            writeDay(out, record.harvestDate());
+            writeDay(out, record.expiryDate());
+            out.writeByte(hops.size());
+            for (TraceResponse.Step hop : hops) {
+                out.writeByte(hop.stage().ordinal());
+                out.writeLong(hop.id());
+                writeDay(out, hop.record() != null ? receivedOn(hop.record()) : null);
+                writeString(out, hop.record() != null ? holder(hop.record()) : null);
+            }
+            byte[] body = bytes.toByteArray();
+
+            Signature signer = Signature.getInstance(ALGORITHM);
+            signer.initSign(privateKey);
+            signer.update(body);
+            byte[] signature = signer.sign();
+
+            byte[] token = Arrays.copyOf(body, body.length + signature.length);
+            System.arraycopy(signature, 0, token, body.length, signature.length);
+            return Optional.of(PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(token));
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign provenance token for " + key.stage() + " " + key.id(), e);
+        }
+    }
+
+    private static LocalDate receivedOn(ScanResponse record) {
+        return switch (record.stage()) {
+            case FARMER -> record.harvestDate();
+            case DISTRIBUTOR -> record.distributorReceivedDate();
+            case RETAILER -> record.retailerReceivedDate();
+            case CONSUMER -> record.purchaseDate();
+        };
+    }
+
+    // Consumers are never named on a label
+    private static String holder(ScanResponse record) {
+        return switch (record.stage()) {
+            case FARMER -> record.farmerName();
+            case DISTRIBUTOR -> record.distributorName();
+            case RETAILER -> record.retailerName();
+            case CONSUMER -> null;
+        };
+    }
+
+    private static void writeDay(DataOutputStream out, LocalDate date) throws IOException {
+        long day = date != null ? date.toEpochDay() : 0;
+        out.writeShort(day > 0 && day <= 0xFFFF ? (int) day : 0);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        // Encoding into a bounded buffer stops at a character boundary, so a long name is cut, never split
+        ByteBuffer buffer = ByteBuffer.allocate(255);
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        encoder.encode(CharBuffer.wrap(value), buffer, true);
+        out.writeByte(buffer.position());
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    private static KeyPair decodeKeys(String privateKey, String publicKey) throws GeneralSecurityException {
+        if (publicKey.isBlank()) {
+            throw new IllegalStateException("farmchainx.provenance-token.public-key must be set with the private key");
+        }
+        KeyFactory factory = KeyFactory.getInstance(ALGORITHM);
+        return new KeyPair(
+                factory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(publicKey))),
+                factory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(privateKey))));
+    }
+
+    // Labels printed with a key that changes on restart can never be verified again, so only dev runs may do that
+    private static KeyPair ephemeralKeys(Environment environment) throws GeneralSecurityException {
+        if (!environment.acceptsProfiles(Profiles.of("dev"))) {
+            throw new IllegalStateException("farmchainx.provenance-token.private-key and public-key must be set "
+                    + "(PROVENANCE_TOKEN_PRIVATE_KEY, PROVENANCE_TOKEN_PUBLIC_KEY); only the dev profile may sign "
+                    + "with a temporary key");
+        }
+        logger.warn("No provenance token key configured; signing with a temporary key that changes on restart");
+        return KeyPairGenerator.getInstance(ALGORITHM).generateKeyPair();
+    }
+
+    private record TokenKey(CustodyStage stage, Long id) {
+    }
+}
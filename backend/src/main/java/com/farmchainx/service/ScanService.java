@@ -0,0 +1,125 @@
+package com.farmchainx.service;
+
+import com.farmchainx.dto.TraceResponse;
+import com.farmchainx.event.CropChangedEvent;
+import com.farmchainx.model.CustodyStage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Public QR scan lookups: the farm-to-shelf custody chain around the scanned record. Results, including misses,
+ * are cached; Caffeine computes each key at most once at a time, so a burst of scans for the same label triggers
+ * a single trace and the rest wait for it.
+ *
+ * A cached chain is dropped when any record on it changes, and when one of its records is handed on, since the
+ * chain then gains a step. Each record on a cached chain points back at the scans that include it.
+ */
+@Service
+public class ScanService {
+
+    private final ProvenanceService provenanceService;
+    private final Cache<ScanKey, Scan> scans;
+    private final Map<ScanKey, Set<Scan>> scansByMember = new ConcurrentHashMap<>();
+
+    public ScanService(ProvenanceService provenanceService,
+                       MeterRegistry meterRegistry,
+                       @Value("${farmchainx.cache.scan.max-size:50000}") long maxSize,
+                       @Value("${farmchainx.cache.scan.ttl:PT10M}") Duration ttl) {
+        this.provenanceService = provenanceService;
+        this.scans = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .executor(Runnable::run)
+                .<ScanKey, Scan>removalListener((key, scan, cause) -> {
+                    if (scan != null) {
+                        forget(scan);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, scans, "scans");
+    }
+
+    public Optional<TraceResponse> scan(CustodyStage stage, Long id) {
+        return scans.get(new ScanKey(stage, id), this::load).trace();
+    }
+
+    @EventListener
+    public void onCropChanged(CropChangedEvent event) {
+        invalidate(new ScanKey(event.stage(), event.id()));
+        if (event.fromStage() != null) {
+            invalidate(new ScanKey(event.fromStage(), event.fromId()));
+        }
+    }
+
+    private Scan load(ScanKey key) {
+        Optional<TraceResponse> trace = provenanceService.trace(key.stage(), key.id());
+        Scan scan = new Scan(key, trace, members(key, trace));
+        scan.members().forEach(member ->
+                scansByMember.computeIfAbsent(member, ignored -> ConcurrentHashMap.newKeySet()).add(scan));
+        return scan;
+    }
+
+    private void invalidate(ScanKey member) {
+        scans.invalidate(member);
+        Set<Scan> dependent = scansByMember.get(member);
+        if (dependent != null) {
+            // Conditional on identity, so a fresher entry loaded for the same key is left alone
+            List.copyOf(dependent).forEach(scan -> scans.asMap().remove(scan.key(), scan));
+        }
+    }
+
+    private void forget(Scan scan) {
+        scan.members().forEach(member -> scansByMember.computeIfPresent(member, (ignored, dependent) -> {
+            dependent.remove(scan);
+            return dependent.isEmpty() ? null : dependent;
+        }));
+    }
+
+    private static List<ScanKey> members(ScanKey key, Optional<TraceResponse> trace) {
+        return trace.map(found -> found.chain().stream()
+                        .map(step -> new ScanKey(step.stage(), step.id()))
+                        .toList())
+                .orElse(List.of(key));
+    }
+
+    private record ScanKey(CustodyStage stage, Long id) {
+    }
+
+    // Compared by identity: two loads of the same chain are different entries
+    private static final class Scan {
+        private final ScanKey key;
+        private final Optional<TraceResponse> trace;
+        private final List<ScanKey> members;
+
+        Scan(ScanKey key, Optional<TraceResponse> trace, List<ScanKey> members) {
+            this.key = key;
+            this.trace = trace;
+            this.members = members;
+        }
+
+        ScanKey key() {
+            return key;
+        }
+
+        Optional<TraceResponse> trace() {
+            return trace;
+        }
+
+        List<ScanKey> members() {
+            return members;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.farmchainx.service;
+
+import com.farmchainx.model.UserRole;
+import com.farmchainx.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out farmer and distributor IDs from blocks reserved in the id_generators table. Each node reserves
+ * a block under a row lock and then serves it from memory, so IDs never collide across nodes and signup
+ * costs one round trip per block instead of one per random guess. IDs left in a block when a node stops
+ * are skipped, never reused.
+ */
+@Component
+public class StakeholderIdAllocator {
+    private static final Logger logger = LoggerFactory.getLogger(StakeholderIdAllocator.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${farmchainx.stakeholder-ids.block-size:20}")
+    private int blockSize;
+
+    // Reservations commit on their own so a rolled back signup does not hand its block to another node
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<UserRole, Block> blocks = new EnumMap<>(UserRole.class);
+
+    public StakeholderIdAllocator(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String nextFarmerId() {
+        return format(next(UserRole.FARMER));
+    }
+
+    public String nextDistributorId() {
+        return format(next(UserRole.DISTRIBUTOR));
+    }
+
+    // Keeps the historical three digit form for small values and simply grows past 999
+    private static String format(long value) {
+        return String.format("%03d", value);
+    }
+
+    private synchronized long next(UserRole role) {
+        Block block = blocks.get(role);
+        if (block == null || block.next >= block.end) {
+            block = reserve(role);
+            blocks.put(role, block);
+        }
+        return block.next++;
+    }
+
+    private Block reserve(UserRole role) {
+        String sequence = sequenceName(role);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Long start = transactionTemplate.execute(status -> {
+                List<?> rows = entityManager
+                        .createNativeQuery("SELECT next_val FROM id_generators WHERE gen_name = ? FOR UPDATE")
+                        .setParameter(1, sequence)
+                        .getResultList();
+                if (rows.isEmpty()) {
+                    return null;
+                }
+                long next = ((Number) rows.get(0)).longValue();
+                entityManager.createNativeQuery("UPDATE id_generators SET next_val = ? WHERE gen_name = ?")
+                        .setParameter(1, next + blockSize)
+                        .setParameter(2, sequence)
+                        .executeUpdate();
+                return next;
+            });
+            if (start != null) {
+                return new Block(start, start + blockSize);
+            }
+            seed(role, sequence);
+        }
+        throw new IllegalStateException("Could not reserve a block of " + sequence);
+    }
+
+    // First use on a database: continue after the highest ID handed out by the old random generator
+    private void seed(UserRole role, String sequence) {
+        Long max = role == UserRole.FARMER
+                ? userRepository.findMaxFarmerNumber()
+                : userRepository.findMaxDistributorNumber();
+        long start = max != null ? max + 1 : 1;
+        try {
+            transactionTemplate.executeWithoutResult(status -> entityManager
+                    .createNativeQuery("INSERT INTO id_generators (gen_name, next_val) VALUES (?, ?)")
+                    .setParameter(1, sequence)
+                    .setParameter(2, start)
+                    .executeUpdate());
+        } catch (RuntimeException e) {
+            // Another node seeded the row first; the next reservation picks it up
+            logger.debug("Sequence {} already seeded: {}", sequence, e.getMessage());
+        }
+    }
+
+    private static String sequenceName(UserRole role) {
+        return role.name().toLowerCase() + "_ids";
+    }
+
+    private static class Block {
+        long next;
+        final long end;
+
+        Block(long next, long end) {
+            this.next = next;
+            this.end = end;
+        }
+    }
+}
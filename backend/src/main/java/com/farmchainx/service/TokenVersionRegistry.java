@@ -0,0 +1,40 @@
+package com.farmchainx.service;
+
+import com.farmchainx.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Current token version per user id, so stateless tokens can be revoked without a lookup per request.
+// Other nodes pick up a bump once their entry expires. Unknown and deleted users are cached as absent for the same
+// time, so tokens for them are refused without a lookup each.
+@Component
+public class TokenVersionRegistry {
+
+    private final LoadingCache<Long, Optional<Integer>> versions;
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${farmchainx.security.token-version.max-size:100000}") long maxSize,
+                                @Value("${farmchainx.security.token-version.ttl:PT30S}") Duration ttl) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build(userRepository::findTokenVersionById);
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return versions.get(userId).map(current -> tokenVersion >= current).orElse(false);
+    }
+
+    public void update(Long userId, int tokenVersion) {
+        versions.put(userId, Optional.of(tokenVersion));
+    }
+
+    public void remove(Long userId) {
+        versions.invalidate(userId);
+    }
+}
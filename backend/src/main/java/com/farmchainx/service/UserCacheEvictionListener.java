@@ -0,0 +1,58 @@
+package com.farmchainx.service;
+
+import com.farmchainx.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Registered on User through @EntityListeners; Hibernate resolves it from the Spring context
+@Component
+public class UserCacheEvictionListener {
+
+    @Autowired
+    @Lazy
+    private PrincipalCache principalCache;
+
+    @Autowired
+    @Lazy
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @PostUpdate
+    public void updated(User user) {
+        Long id = user.getId();
+        String email = user.getEmail();
+        int tokenVersion = user.getTokenVersion();
+        afterCommit(() -> {
+            principalCache.invalidate(id, email);
+            tokenVersionRegistry.update(id, tokenVersion);
+        });
+    }
+
+    @PostRemove
+    public void removed(User user) {
+        Long id = user.getId();
+        String email = user.getEmail();
+        afterCommit(() -> {
+            principalCache.invalidate(id, email);
+            tokenVersionRegistry.remove(id);
+        });
+    }
+
+    // Evicting before commit would let a concurrent load cache the old row again until the TTL
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
@@ -8,7 +8,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
-import java.util.Random;
 
 @Service
 public class UserService {
@@ -19,6 +18,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private StakeholderIdAllocator stakeholderIdAllocator;
+
     public User createUser(String email, String password, String name, String location, UserRole role) {
         if (userRepository.existsByEmail(email)) {
             throw new RuntimeException("Email is already taken!");
@@ -28,9 +30,9 @@ public class UserService {
 
         // Generate unique IDs based on role
         if (role == UserRole.FARMER) {
-            user.setFarmerId(generateUniqueFarmerId());
+            user.setFarmerId(stakeholderIdAllocator.nextFarmerId());
         } else if (role == UserRole.DISTRIBUTOR) {
-            user.setDistributorId(generateUniqueDistributorId());
+            user.setDistributorId(stakeholderIdAllocator.nextDistributorId());
         }
 
         return userRepository.save(user);
@@ -48,21 +50,11 @@ public class UserService {
         return userRepository.findDistributorByDistributorId(distributorId);
     }
 
-    private String generateUniqueFarmerId() {
-        String farmerId;
-        Random random = new Random();
-        do {
-            farmerId = String.format("%03d", random.nextInt(1000));
-        } while (userRepository.existsByFarmerId(farmerId));
-        return farmerId;
-    }
-
-    private String generateUniqueDistributorId() {
-        String distributorId;
-        Random random = new Random();
-        do {
-            distributorId = String.format("%03d", random.nextInt(1000));
-        } while (userRepository.existsByDistributorId(distributorId));
-        return distributorId;
+    // Invalidates every token issued to the user so far, including stateless ones
+    public void revokeTokens(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Brings databases that were built by hand before Flyway, and are baselined at version 1, up to the V1 schema:
+ * token versions, wider stakeholder ids, optimistic lock columns, the id_generators table with its stage rows,
+ * and idempotency_keys. Every step checks the catalog first, so on a database created by V1 nothing changes.
+ * Runs before V2, so the later migrations can rely on the V1 schema on either kind of database.
+ */
+public class V1_1__Upgrade_baselined_schema extends BaseJavaMigration {
+
+    private static final List<String> STAKEHOLDER_ID_TABLES = List.of("users", "crops");
+    private static final List<String> VERSIONED_TABLES =
+            List.of("crops", "farmer_crops", "distributor_crops", "retailer_crops", "consumer_purchases");
+    // Tables whose ids now come from id_generators; consumer_purchases follows in V4
+    private static final List<String> POOLED_TABLES = List.of("farmer_crops", "distributor_crops", "retailer_crops");
+    // One allocation block of the stage table generators
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (Statement statement = connection.createStatement()) {
+            if (!hasColumn(metaData, "users", "token_version")) {
+                statement.execute("ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0");
+            }
+            for (String table : STAKEHOLDER_ID_TABLES) {
+                for (String column : List.of("farmer_id", "distributor_id")) {
+                    if (columnSize(metaData, table, column) < 10) {
+                        statement.execute("ALTER TABLE " + table + " MODIFY " + column + " VARCHAR(10)");
+                    }
+                }
+            }
+            for (String table : VERSIONED_TABLES) {
+                if (!hasColumn(metaData, table, "version")) {
+                    statement.execute("ALTER TABLE " + table + " ADD COLUMN version BIGINT NOT NULL DEFAULT 0");
+                }
+            }
+
+            if (!hasTable(metaData, "id_generators")) {
+                statement.execute("""
+                        CREATE TABLE id_generators (
+                            gen_name VARCHAR(255) NOT NULL,
+                            next_val BIGINT,
+                            PRIMARY KEY (gen_name)
+                        )
+                        """);
+            }
+            // Start one block past the highest id, so pooled ids never collide with rows inserted by IDENTITY
+            for (String table : POOLED_TABLES) {
+                if (!hasGeneratorRow(statement, table)) {
+                    statement.execute("INSERT INTO id_generators (gen_name, next_val) SELECT '" + table + "', "
+                            + "COALESCE(MAX(id), 0) + " + (ALLOCATION_SIZE + 1) + " FROM " + table);
+                }
+            }
+
+            if (!hasTable(metaData, "idempotency_keys")) {
+                statement.execute("""
+                        CREATE TABLE idempotency_keys (
+                            key_hash VARCHAR(43) NOT NULL,
+                            request_hash VARCHAR(43) NOT NULL,
+                            status_code INT,
+                            response_body MEDIUMTEXT,
+                            created_at DATETIME(6) NOT NULL,
+                            expires_at DATETIME(6) NOT NULL,
+                            PRIMARY KEY (key_hash)
+                        )
+                        """);
+            }
+        }
+    }
+
+    private static boolean hasTable(DatabaseMetaData metaData, String table) throws SQLException {
+        try (ResultSet tables = metaData.getTables(catalog(metaData), schema(metaData), table, null)) {
+            return tables.next();
+        }
+    }
+
+    private static boolean hasColumn(DatabaseMetaData metaData, String table, String column) throws SQLException {
+        return columnSize(metaData, table, column) >= 0;
+    }
+
+    // -1 when the column does not exist
+    private static int columnSize(DatabaseMetaData metaData, String table, String column) throws SQLException {
+        try (ResultSet columns = metaData.getColumns(catalog(metaData), schema(metaData), table, column)) {
+            return columns.next() ? columns.getInt("COLUMN_SIZE") : -1;
+        }
+    }
+
+    private static boolean hasGeneratorRow(Statement statement, String name) throws SQLException {
+        try (ResultSet rows = statement.executeQuery("SELECT 1 FROM id_generators WHERE gen_name = '" + name + "'")) {
+            return rows.next();
+        }
+    }
+
+    private static String catalog(DatabaseMetaData metaData) throws SQLException {
+        return metaData.getConnection().getCatalog();
+    }
+
+    private static String schema(DatabaseMetaData metaData) throws SQLException {
+        return metaData.getConnection().getSchema();
+    }
+}
@@ -0,0 +1,26 @@
+-- Expiring-soon alerts as delivered to each owner, newest last. Rows for lots past the expiry lookback are purged.
+CREATE TABLE expiry_alerts (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    owner_id BIGINT NOT NULL,
+    stage VARCHAR(16) NOT NULL,
+    lot_id BIGINT NOT NULL,
+    name VARCHAR(255),
+    crop_type VARCHAR(255),
+    expiry_date DATE NOT NULL,
+    horizon DATE NOT NULL,
+    alerted_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_expiry_alerts_owner ON expiry_alerts (owner_id, id);
+CREATE INDEX idx_expiry_alerts_expiry ON expiry_alerts (expiry_date);
+
+-- The last lot alerted in expiry order, in one row, so a restarted scheduler carries on where it stopped instead of
+-- alerting every lot within the horizon again
+CREATE TABLE expiry_alert_cursor (
+    id INT NOT NULL,
+    stage VARCHAR(16) NOT NULL,
+    lot_id BIGINT NOT NULL,
+    expiry_date DATE NOT NULL,
+    PRIMARY KEY (id)
+);
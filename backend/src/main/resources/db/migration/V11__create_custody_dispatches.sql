@@ -0,0 +1,10 @@
+-- Lots an upstream owner has sent on, and to whom. Only the named receiver can take a lot into the next stage;
+-- received_at is set when they do. Until then the owner may send the lot to someone else instead.
+CREATE TABLE custody_dispatches (
+    from_stage VARCHAR(16) NOT NULL,
+    from_id BIGINT NOT NULL,
+    to_user_id BIGINT NOT NULL,
+    dispatched_at DATETIME(6) NOT NULL,
+    received_at DATETIME(6),
+    PRIMARY KEY (from_stage, from_id)
+);
@@ -0,0 +1,22 @@
+-- A retailer lot is sold to any number of consumers, so the upstream side of a link is no longer unique.
+-- Hand-over-once for the other stages is kept by custody_dispatches, so lots handed over before dispatches
+-- existed are recorded there as received.
+UPDATE custody_dispatches SET received_at = dispatched_at
+WHERE received_at IS NULL AND EXISTS (
+    SELECT 1 FROM custody_links l WHERE l.from_stage = custody_dispatches.from_stage
+        AND l.from_id = custody_dispatches.from_id);
+
+INSERT INTO custody_dispatches (from_stage, from_id, to_user_id, dispatched_at, received_at)
+SELECT l.from_stage, l.from_id, d.user_id, l.created_at, l.created_at
+FROM custody_links l JOIN distributor_crops d ON d.id = l.to_id
+WHERE l.to_stage = 'DISTRIBUTOR' AND NOT EXISTS (
+    SELECT 1 FROM custody_dispatches x WHERE x.from_stage = l.from_stage AND x.from_id = l.from_id);
+
+INSERT INTO custody_dispatches (from_stage, from_id, to_user_id, dispatched_at, received_at)
+SELECT l.from_stage, l.from_id, r.user_id, l.created_at, l.created_at
+FROM custody_links l JOIN retailer_crops r ON r.id = l.to_id
+WHERE l.to_stage = 'RETAILER' AND NOT EXISTS (
+    SELECT 1 FROM custody_dispatches x WHERE x.from_stage = l.from_stage AND x.from_id = l.from_id);
+
+CREATE INDEX idx_custody_links_from ON custody_links (from_stage, from_id);
+ALTER TABLE custody_links DROP CONSTRAINT uk_custody_links_from;
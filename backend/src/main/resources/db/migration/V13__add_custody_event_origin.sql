@@ -0,0 +1,4 @@
+-- The instance that recorded each change, so instances following custody_events can skip their own changes. It is
+-- routing metadata only and not covered by the event hash. Rows from before this column existed have none.
+ALTER TABLE custody_outbox ADD COLUMN origin VARCHAR(36);
+ALTER TABLE custody_events ADD COLUMN origin VARCHAR(36);
@@ -0,0 +1,8 @@
+-- One row that an expiry alert run locks until it commits, so runs on several instances take turns and each carries
+-- on from the cursor the previous run committed instead of alerting the same lots again
+CREATE TABLE expiry_alert_lock (
+    id INT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO expiry_alert_lock (id) VALUES (1);
@@ -0,0 +1,162 @@
+-- Tables for every entity in com.farmchainx.model.
+-- Databases that already had these tables before migrations were introduced are baselined at version 1,
+-- so this script only runs on empty schemas.
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255),
+    password VARCHAR(255),
+    name VARCHAR(255),
+    location VARCHAR(255),
+    role VARCHAR(20),
+    farmer_id VARCHAR(10),
+    distributor_id VARCHAR(10),
+    token_version INT NOT NULL DEFAULT 0,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_farmer_id UNIQUE (farmer_id),
+    CONSTRAINT uk_users_distributor_id UNIQUE (distributor_id)
+);
+
+CREATE TABLE crops (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255),
+    crop_type VARCHAR(255),
+    harvest_date DATE,
+    expiry_date DATE,
+    soil_type VARCHAR(255),
+    pesticides_used VARCHAR(255),
+    image_url VARCHAR(255),
+    farmer_id VARCHAR(10),
+    farmer_name VARCHAR(255),
+    farmer_location VARCHAR(255),
+    distributor_id VARCHAR(10),
+    distributor_name VARCHAR(255),
+    distributor_location VARCHAR(255),
+    distributor_received_date DATE,
+    sent_to_retailer VARCHAR(255),
+    retailer_location VARCHAR(255),
+    retailer_name VARCHAR(255),
+    retailer_received_date DATE,
+    received_from_distributor VARCHAR(255),
+    distributor_location_retailer VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_crops_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- Stage tables take ids from id_generators (pooled), not AUTO_INCREMENT, so inserts can be batched
+CREATE TABLE farmer_crops (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255),
+    crop_type VARCHAR(255),
+    harvest_date DATE,
+    expiry_date DATE,
+    soil_type VARCHAR(255),
+    pesticides_used VARCHAR(255),
+    image_url VARCHAR(255),
+    farmer_id VARCHAR(10),
+    farmer_name VARCHAR(255),
+    farmer_location VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_farmer_crops_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE distributor_crops (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255),
+    crop_type VARCHAR(255),
+    harvest_date DATE,
+    expiry_date DATE,
+    soil_type VARCHAR(255),
+    pesticides_used VARCHAR(255),
+    image_url VARCHAR(255),
+    farmer_id VARCHAR(10),
+    farmer_name VARCHAR(255),
+    farmer_location VARCHAR(255),
+    distributor_id VARCHAR(10),
+    distributor_name VARCHAR(255),
+    distributor_location VARCHAR(255),
+    distributor_received_date DATE,
+    sent_to_retailer VARCHAR(255),
+    retailer_location VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_distributor_crops_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE retailer_crops (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255),
+    crop_type VARCHAR(255),
+    harvest_date DATE,
+    expiry_date DATE,
+    soil_type VARCHAR(255),
+    pesticides_used VARCHAR(255),
+    image_url VARCHAR(255),
+    farmer_id VARCHAR(10),
+    farmer_name VARCHAR(255),
+    farmer_location VARCHAR(255),
+    distributor_id VARCHAR(10),
+    distributor_name VARCHAR(255),
+    distributor_location VARCHAR(255),
+    distributor_received_date DATE,
+    retailer_name VARCHAR(255),
+    retailer_location_address VARCHAR(255),
+    retailer_received_date DATE,
+    received_from_distributor VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_retailer_crops_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE consumer_purchases (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    crop_name VARCHAR(255),
+    crop_type VARCHAR(255),
+    purchase_date DATE,
+    purchased_from VARCHAR(255),
+    retailer_location VARCHAR(255),
+    farmer_id VARCHAR(10),
+    farmer_name VARCHAR(255),
+    distributor_id VARCHAR(10),
+    distributor_name VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_consumer_purchases_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- Backs the crop table generators and StakeholderIdAllocator; rows are created on first use
+CREATE TABLE id_generators (
+    gen_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (gen_name)
+);
+
+CREATE TABLE idempotency_keys (
+    key_hash VARCHAR(43) NOT NULL,
+    request_hash VARCHAR(43) NOT NULL,
+    status_code INT,
+    response_body MEDIUMTEXT,
+    created_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (key_hash)
+);
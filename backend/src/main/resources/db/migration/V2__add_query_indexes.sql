@@ -0,0 +1,29 @@
+-- One index per repository access path. Listings page on (created_at DESC, id DESC) after an equality filter,
+-- so those indexes carry the sort columns and MySQL can read a page in index order without a filesort.
+
+-- CropRepository: findByUser/findByUserId, findByFarmerId, findByDistributorId.
+-- findCropsByFarmerId/findCropsByDistributorId resolve the user through the unique keys on users first.
+CREATE INDEX idx_crops_user_id ON crops (user_id);
+CREATE INDEX idx_crops_farmer_id ON crops (farmer_id);
+CREATE INDEX idx_crops_distributor_id ON crops (distributor_id);
+
+-- FarmerCropRepository: GET /crops for farmers, findByUser, findByFarmerId and GET /crops/farmer/{farmerId}
+CREATE INDEX idx_farmer_crops_user_created ON farmer_crops (user_id, created_at, id);
+CREATE INDEX idx_farmer_crops_farmer_created ON farmer_crops (farmer_id, created_at, id);
+CREATE INDEX idx_farmer_crops_expiry_date ON farmer_crops (expiry_date);
+
+-- DistributorCropRepository: GET /crops for distributors, findByUser, findByDistributorId
+-- and GET /crops/distributor/{distributorId}
+CREATE INDEX idx_distributor_crops_user_created ON distributor_crops (user_id, created_at, id);
+CREATE INDEX idx_distributor_crops_distributor_created ON distributor_crops (distributor_id, created_at, id);
+CREATE INDEX idx_distributor_crops_expiry_date ON distributor_crops (expiry_date);
+
+-- RetailerCropRepository: GET /crops for retailers and findByUser
+CREATE INDEX idx_retailer_crops_user_created ON retailer_crops (user_id, created_at, id);
+CREATE INDEX idx_retailer_crops_expiry_date ON retailer_crops (expiry_date);
+
+-- ConsumerPurchaseRepository: findByUser
+CREATE INDEX idx_consumer_purchases_user_id ON consumer_purchases (user_id);
+
+-- IdempotencyService purge of expired keys
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
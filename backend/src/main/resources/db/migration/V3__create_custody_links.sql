@@ -0,0 +1,15 @@
+-- Lineage between stage records. The unique key answers "where did this record come from" (walking upstream),
+-- the second index answers "what did this record become" (walking downstream); a trace is one index probe
+-- per hop in either direction.
+CREATE TABLE custody_links (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    from_stage VARCHAR(16) NOT NULL,
+    from_id BIGINT NOT NULL,
+    to_stage VARCHAR(16) NOT NULL,
+    to_id BIGINT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_custody_links_to UNIQUE (to_stage, to_id)
+);
+
+CREATE INDEX idx_custody_links_from ON custody_links (from_stage, from_id);
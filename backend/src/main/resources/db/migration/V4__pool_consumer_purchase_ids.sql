@@ -0,0 +1,4 @@
+-- consumer_purchases moves from AUTO_INCREMENT to the pooled id_generators row used by the stage tables.
+-- Start one allocation block (50) past the highest existing id so pooled ids never collide with old rows.
+INSERT INTO id_generators (gen_name, next_val)
+SELECT 'consumer_purchases', COALESCE(MAX(id), 0) + 51 FROM consumer_purchases;
@@ -0,0 +1,27 @@
+-- Append-only custody event log. Each row's hash covers the previous row's hash, so rewriting any event breaks
+-- every hash after it. Rows are never updated; a batch owns the contiguous seq range it sealed.
+CREATE TABLE custody_events (
+    seq BIGINT NOT NULL,
+    stage VARCHAR(16) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    record_digest CHAR(64),
+    occurred_at DATETIME(6) NOT NULL,
+    prev_hash CHAR(64) NOT NULL,
+    hash CHAR(64) NOT NULL,
+    PRIMARY KEY (seq)
+);
+
+CREATE INDEX idx_custody_events_entity ON custody_events (stage, entity_id, seq);
+
+-- Merkle root over the event hashes in [first_seq, last_seq]
+CREATE TABLE merkle_batches (
+    id BIGINT NOT NULL,
+    first_seq BIGINT NOT NULL,
+    last_seq BIGINT NOT NULL,
+    leaf_count INT NOT NULL,
+    root CHAR(64) NOT NULL,
+    sealed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_merkle_batches_last_seq UNIQUE (last_seq)
+);
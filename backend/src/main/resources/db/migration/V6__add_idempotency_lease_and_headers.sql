@@ -0,0 +1,4 @@
+-- Replayed responses carry their ETag and similar headers; an in-progress key can be taken over once its lease
+-- has run out. Keys claimed before this migration have no lease and count as expired.
+ALTER TABLE idempotency_keys ADD COLUMN response_headers VARCHAR(2048);
+ALTER TABLE idempotency_keys ADD COLUMN locked_until DATETIME(6);
@@ -0,0 +1,9 @@
+-- Stage records deleted before deletes unlinked them left their custody links behind; drop every link whose
+-- record on either side no longer exists.
+DELETE FROM custody_links
+WHERE (from_stage = 'FARMER' AND NOT EXISTS (SELECT 1 FROM farmer_crops c WHERE c.id = custody_links.from_id))
+   OR (from_stage = 'DISTRIBUTOR' AND NOT EXISTS (SELECT 1 FROM distributor_crops c WHERE c.id = custody_links.from_id))
+   OR (from_stage = 'RETAILER' AND NOT EXISTS (SELECT 1 FROM retailer_crops c WHERE c.id = custody_links.from_id))
+   OR (to_stage = 'DISTRIBUTOR' AND NOT EXISTS (SELECT 1 FROM distributor_crops c WHERE c.id = custody_links.to_id))
+   OR (to_stage = 'RETAILER' AND NOT EXISTS (SELECT 1 FROM retailer_crops c WHERE c.id = custody_links.to_id))
+   OR (to_stage = 'CONSUMER' AND NOT EXISTS (SELECT 1 FROM consumer_purchases c WHERE c.id = custody_links.to_id));
@@ -0,0 +1,4 @@
+-- A lot is handed over once, so the upstream side of a link is unique as well. The unique key replaces the plain
+-- index that walks downstream. Fails if a lot was already split across several links; resolve those first.
+ALTER TABLE custody_links ADD CONSTRAINT uk_custody_links_from UNIQUE (from_stage, from_id);
+DROP INDEX idx_custody_links_from ON custody_links;
@@ -0,0 +1,46 @@
+-- Custody changes waiting for the ledger writer. A row is written in the same transaction as the crop change it
+-- records, together with the digest of the record as that transaction left it; the writer appends rows to
+-- custody_events in id order and deletes them.
+CREATE TABLE custody_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    stage VARCHAR(16) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    record_digest CHAR(64),
+    occurred_at DATETIME(6) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(512),
+    PRIMARY KEY (id)
+);
+
+-- Outbox rows that failed to append too many times. They are left out of the chain and kept here for inspection.
+CREATE TABLE custody_dead_letters (
+    id BIGINT NOT NULL,
+    stage VARCHAR(16) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    record_digest CHAR(64),
+    occurred_at DATETIME(6) NOT NULL,
+    attempts INT NOT NULL,
+    last_error VARCHAR(512),
+    failed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- The chain head and the last sealed batch, in one row. A writer holds its lock for the whole append, so writers
+-- on several instances take turns assigning sequence numbers instead of forking the chain.
+CREATE TABLE custody_ledger_head (
+    id INT NOT NULL,
+    seq BIGINT NOT NULL,
+    hash CHAR(64) NOT NULL,
+    sealed_seq BIGINT NOT NULL,
+    batch_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO custody_ledger_head (id, seq, hash, sealed_seq, batch_id)
+SELECT 1,
+    COALESCE((SELECT MAX(seq) FROM custody_events), 0),
+    COALESCE((SELECT hash FROM custody_events ORDER BY seq DESC LIMIT 1), REPEAT('0', 64)),
+    COALESCE((SELECT MAX(last_seq) FROM merkle_batches), 0),
+    COALESCE((SELECT MAX(id) FROM merkle_batches), 0);
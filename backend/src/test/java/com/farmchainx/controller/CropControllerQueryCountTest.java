@@ -0,0 +1,178 @@
+package com.farmchainx.controller;
+
+import com.farmchainx.config.QueryCounter;
+import com.farmchainx.model.User;
+import com.farmchainx.model.UserRole;
+import com.farmchainx.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the statements each CropController endpoint issues with QueryCounter, and checks that list and transfer
+ * calls cost the same for one lot as for many. Callers are authenticated directly, so the counts leave out the
+ * token filter's principal lookup and are the endpoint's own. Statements made through JdbcTemplate, such as the
+ * custody outbox and custody links, count like Hibernate's. Crop ids are handed out in blocks of 50, so tests that
+ * insert rows first insert one outside the count and the block is not fetched in the middle of one.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+// Its own database, so rows from other tests never change the counts
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:query-counts;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class CropControllerQueryCountTest {
+
+    private static final int MANY = 20;
+    private static final AtomicInteger RUNS = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User farmer;
+    private User distributor;
+
+    @BeforeEach
+    void createUsers() {
+        int run = RUNS.incrementAndGet();
+        farmer = userService.createUser("farmer-" + run + "@farmchainx.test", "secret12", "Query Farmer",
+                "Nashik, Maharashtra", UserRole.FARMER);
+        distributor = userService.createUser("distributor-" + run + "@farmchainx.test", "secret12",
+                "Query Distributor", "Pune, Maharashtra", UserRole.DISTRIBUTOR);
+    }
+
+    @Test
+    void createCropInsertsTheCropAndItsLedgerEntry() throws Exception {
+        createCrops(1);
+        QueryCounter.Snapshot queries = count(post("/crops").with(as(farmer))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(cropJson("Organic Tomato")));
+
+        // The crop row, then its custody outbox row
+        assertThat(queries.statements()).isEqualTo(2);
+    }
+
+    @Test
+    void listCropsCostsTheSameForOneCropAsForMany() throws Exception {
+        createCrops(1);
+        QueryCounter.Snapshot one = count(get("/crops").with(as(farmer)));
+        QueryCounter.Snapshot oneByFarmerId = count(get("/crops/farmer/" + farmer.getFarmerId()).with(as(farmer)));
+
+        createCrops(MANY - 1);
+        QueryCounter.Snapshot many = count(get("/crops").with(as(farmer)));
+        QueryCounter.Snapshot manyByFarmerId = count(get("/crops/farmer/" + farmer.getFarmerId()).with(as(farmer)));
+
+        // One keyset page query; no count query and no per-row lookups
+        assertThat(one.statements()).isEqualTo(1);
+        assertThat(many.statements()).isEqualTo(one.statements());
+        assertThat(oneByFarmerId.statements()).isEqualTo(1);
+        assertThat(manyByFarmerId.statements()).isEqualTo(oneByFarmerId.statements());
+    }
+
+    @Test
+    void transferCostsTheSameForOneLotAsForMany() throws Exception {
+        mockMvc.perform(post("/crops/transfer/batch").with(as(distributor))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dispatchToDistributor(createCrops(1)))))
+                .andExpect(status().isCreated());
+        QueryCounter.Snapshot one = count(post("/crops/transfer/batch").with(as(distributor))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dispatchToDistributor(createCrops(1)))));
+        QueryCounter.Snapshot many = count(post("/crops/transfer/batch").with(as(distributor))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dispatchToDistributor(createCrops(MANY)))));
+
+        // The lots and their dispatches are read in one query each; the receipts, distributor rows, custody links
+        // and outbox rows are written in one batch each
+        assertThat(one.statements()).isEqualTo(6);
+        assertThat(many.statements()).isEqualTo(one.statements());
+    }
+
+    @Test
+    void traceOfAFarmLot() throws Exception {
+        Long id = createCrops(1).get(0);
+
+        // One link walk per direction, then one load for the only stage on the chain
+        assertThat(count(get("/crops/trace/" + id)).statements()).isEqualTo(3);
+    }
+
+    @Test
+    void repeatedScanIsServedFromCache() throws Exception {
+        Long id = createCrops(1).get(0);
+
+        // The scan is the lot's trace
+        assertThat(count(get("/crops/scan/" + id).param("stage", "FARMER")).statements()).isEqualTo(3);
+        assertThat(count(get("/crops/scan/" + id).param("stage", "FARMER")).statements()).isZero();
+    }
+
+    private QueryCounter.Snapshot count(MockHttpServletRequestBuilder request) throws Exception {
+        return QueryCounter.measure(() -> mockMvc.perform(request).andExpect(status().is2xxSuccessful()));
+    }
+
+    private List<Long> createCrops(int count) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MvcResult result = mockMvc.perform(post("/crops").with(as(farmer))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(cropJson("Organic Tomato " + i)))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode crop = objectMapper.readTree(result.getResponse().getContentAsString());
+            ids.add(crop.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private List<Long> dispatchToDistributor(List<Long> ids) throws Exception {
+        mockMvc.perform(post("/crops/dispatch").with(as(farmer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "receiverEmail", distributor.getEmail(),
+                                "lotIds", ids))))
+                .andExpect(status().isOk());
+        return ids;
+    }
+
+    private String cropJson(String name) throws Exception {
+        return objectMapper.writeValueAsString(Map.of(
+                "name", name,
+                "cropType", "Vegetable",
+                "harvestDate", "2026-09-01",
+                "expiryDate", "2026-09-20",
+                "soilType", "Black cotton soil",
+                "pesticidesUsed", "None"));
+    }
+
+    private static RequestPostProcessor as(User user) {
+        return authentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
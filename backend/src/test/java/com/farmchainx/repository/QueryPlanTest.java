@@ -0,0 +1,233 @@
+package com.farmchainx.repository;
+
+import com.farmchainx.model.CustodyStage;
+import com.farmchainx.model.User;
+import com.farmchainx.model.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Runs every derived and @Query method of the crop, stage and user repositories, EXPLAINs each statement it issues
+ * and fails on a full scan. Plans come from H2 in MySQL mode with the Flyway schema and a few thousand rows, so a
+ * query that finds no usable index shows up as a scan of the table or of a whole index. A method added to one of these repositories
+ * without a case here fails the coverage check.
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+// Its own database: the seeded rows are committed and must not leak into other tests
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:query-plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class QueryPlanTest {
+
+    // H2 names the index it reads in a comment, followed by the lookup condition; a bare name is a full scan of the
+    // table (tableScan) or of a whole index
+    private static final Pattern FULL_SCAN = Pattern.compile("/\\* ([\\w.]+) \\*/");
+
+    // Scans that are deliberate, with the reason
+    private static final Map<String, String> ALLOWED_SCANS = Map.of(
+            "UserRepository.findMaxFarmerNumber", "runs once per database, to seed the farmer_ids generator row",
+            "UserRepository.findMaxDistributorNumber", "runs once per database, to seed the distributor_ids generator row");
+
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        static BeanPostProcessor recordingDataSource(ObjectProvider<StatementRecorder> recorder) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? recorder.getObject().wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private StatementRecorder recorder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CropRepository cropRepository;
+
+    @Autowired
+    private FarmerCropRepository farmerCropRepository;
+
+    @Autowired
+    private DistributorCropRepository distributorCropRepository;
+
+    @Autowired
+    private RetailerCropRepository retailerCropRepository;
+
+    @Autowired
+    private CustodyLinkRepository custodyLinkRepository;
+
+    private User farmer;
+    private User distributor;
+    private User retailer;
+
+    @BeforeEach
+    void seed() {
+        // ANALYZE commits, so the rows outlive the test transaction and are seeded once for all tests
+        if (userRepository.count() == 0) {
+            insertRows();
+            jdbcTemplate.execute("ANALYZE");
+        }
+        farmer = userRepository.findById(1L).orElseThrow();
+        distributor = userRepository.findById(101L).orElseThrow();
+        retailer = userRepository.findById(201L).orElseThrow();
+    }
+
+    // 100 users per role, 5000 rows per crop table, spread over the users and stakeholder ids
+    private void insertRows() {
+        jdbcTemplate.update("""
+                INSERT INTO users (id, email, name, role, farmer_id, distributor_id, created_at, updated_at)
+                SELECT x, CONCAT('user', x, '@example.test'), CONCAT('User ', x),
+                    CASEWHEN(x <= 100, 'FARMER', CASEWHEN(x <= 200, 'DISTRIBUTOR', 'RETAILER')),
+                    CASEWHEN(x <= 100, LPAD(x, 3, '0'), NULL),
+                    CASEWHEN(x > 100 AND x <= 200, LPAD(x - 100, 3, '0'), NULL),
+                    CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+                FROM SYSTEM_RANGE(1, 300) AS r (x)
+                """);
+        for (String table : List.of("crops", "farmer_crops", "distributor_crops", "retailer_crops")) {
+            String owners = switch (table) {
+                case "distributor_crops" -> "MOD(x, 100) + 101";
+                case "retailer_crops" -> "MOD(x, 100) + 201";
+                default -> "MOD(x, 100) + 1";
+            };
+            boolean hasDistributor = !table.equals("farmer_crops");
+            jdbcTemplate.update("INSERT INTO " + table + " (id, user_id, name, farmer_id"
+                    + (hasDistributor ? ", distributor_id" : "") + ", expiry_date, created_at, updated_at) "
+                    + "SELECT x, " + owners + ", CONCAT('Crop ', x), LPAD(MOD(x, 100) + 1, 3, '0')"
+                    + (hasDistributor ? ", LPAD(MOD(x, 100) + 1, 3, '0')" : "")
+                    + ", DATEADD('DAY', MOD(x, 90), CURRENT_DATE), DATEADD('SECOND', x, CURRENT_TIMESTAMP), "
+                    + "CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, 5000) AS r (x)");
+        }
+    }
+
+    @Test
+    void userRepositoryUsesIndexes() {
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("findByEmail", () -> userRepository.findByEmail("user7@example.test"));
+        calls.put("existsByEmail", () -> userRepository.existsByEmail("user7@example.test"));
+        calls.put("existsByFarmerId", () -> userRepository.existsByFarmerId("007"));
+        calls.put("existsByDistributorId", () -> userRepository.existsByDistributorId("007"));
+        calls.put("findByFarmerIdAndRole", () -> userRepository.findByFarmerIdAndRole("007", UserRole.FARMER));
+        calls.put("findByDistributorIdAndRole",
+                () -> userRepository.findByDistributorIdAndRole("007", UserRole.DISTRIBUTOR));
+        calls.put("findTokenVersionById", () -> userRepository.findTokenVersionById(7L));
+        calls.put("findMaxFarmerNumber", userRepository::findMaxFarmerNumber);
+        calls.put("findMaxDistributorNumber", userRepository::findMaxDistributorNumber);
+        calls.put("findFarmerByFarmerId", () -> userRepository.findFarmerByFarmerId("007"));
+        calls.put("findDistributorByDistributorId", () -> userRepository.findDistributorByDistributorId("007"));
+        assertIndexed(UserRepository.class, calls);
+    }
+
+    @Test
+    void cropRepositoryUsesIndexes() {
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("findByUser", () -> cropRepository.findByUser(farmer));
+        calls.put("findByUserId", () -> cropRepository.findByUserId(farmer.getId()));
+        calls.put("findByFarmerId", () -> cropRepository.findByFarmerId("007"));
+        calls.put("findByDistributorId", () -> cropRepository.findByDistributorId("007"));
+        calls.put("findCropsByFarmerId", () -> cropRepository.findCropsByFarmerId("007"));
+        calls.put("findCropsByDistributorId", () -> cropRepository.findCropsByDistributorId("007"));
+        assertIndexed(CropRepository.class, calls);
+    }
+
+    @Test
+    void stageRepositoriesUseIndexes() {
+        assertIndexed(FarmerCropRepository.class, Map.of(
+                "findByUser", () -> farmerCropRepository.findByUser(farmer),
+                "findByFarmerId", () -> farmerCropRepository.findByFarmerId("007")));
+        assertIndexed(DistributorCropRepository.class, Map.of(
+                "findByUser", () -> distributorCropRepository.findByUser(distributor),
+                "findByDistributorId", () -> distributorCropRepository.findByDistributorId("007")));
+        assertIndexed(RetailerCropRepository.class, Map.of(
+                "findByUser", () -> retailerCropRepository.findByUser(retailer)));
+    }
+
+    @Test
+    void custodyLinkRepositoryUsesIndexes() {
+        assertIndexed(CustodyLinkRepository.class, Map.of(
+                "existsByFromStageAndFromId", () -> custodyLinkRepository.existsByFromStageAndFromId(CustodyStage.FARMER, 7L),
+                "existsByToStageAndToId", () -> custodyLinkRepository.existsByToStageAndToId(CustodyStage.DISTRIBUTOR, 7L)));
+    }
+
+    private void assertIndexed(Class<?> repository, Map<String, Runnable> calls) {
+        Set<String> declared = Arrays.stream(repository.getDeclaredMethods())
+                .map(Method::getName)
+                .collect(Collectors.toCollection(TreeSet::new));
+        assertThat(calls.keySet()).as("methods of %s covered by this test", repository.getSimpleName())
+                .containsExactlyInAnyOrderElementsOf(declared);
+
+        List<String> scans = new ArrayList<>();
+        calls.forEach((name, call) -> {
+            recorder.clear();
+            call.run();
+            List<StatementRecorder.Query> queries = recorder.queries();
+            assertThat(queries).as("queries issued by %s.%s", repository.getSimpleName(), name).isNotEmpty();
+            for (StatementRecorder.Query query : queries) {
+                String plan = explain(query);
+                Matcher scan = FULL_SCAN.matcher(plan);
+                if (scan.find() && !ALLOWED_SCANS.containsKey(repository.getSimpleName() + "." + name)) {
+                    scans.add(repository.getSimpleName() + "." + name + " scans " + scan.group(1) + ":\n" + plan);
+                }
+            }
+        });
+        if (!scans.isEmpty()) {
+            fail(String.join("\n\n", scans));
+        }
+    }
+
+    private String explain(StatementRecorder.Query query) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + query.sql())) {
+                query.bind(explain);
+                try (ResultSet plan = explain.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.farmchainx.repository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wraps a DataSource and records every query and update run through a PreparedStatement together with its parameter
+ * bindings, so the same query can be prepared again, for example behind EXPLAIN.
+ */
+class StatementRecorder {
+
+    record Binding(Method setter, Object[] args) {
+    }
+
+    record Query(String sql, List<Binding> bindings) {
+
+        void bind(PreparedStatement statement) throws SQLException {
+            for (Binding binding : bindings) {
+                try {
+                    binding.setter().invoke(statement, binding.args());
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                } catch (InvocationTargetException e) {
+                    throw (SQLException) e.getCause();
+                }
+            }
+        }
+    }
+
+    private final List<Query> queries = new CopyOnWriteArrayList<>();
+
+    DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (method, args, result) ->
+                method.getName().equals("getConnection") ? wrap((Connection) result) : result);
+    }
+
+    List<Query> queries() {
+        return List.copyOf(queries);
+    }
+
+    void clear() {
+        queries.clear();
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            if (method.getName().equals("prepareStatement") && args[0] instanceof String sql) {
+                return wrap((PreparedStatement) result, sql);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement wrap(PreparedStatement statement, String sql) {
+        List<Binding> bindings = new ArrayList<>();
+        return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+            if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bindings.add(new Binding(method, args.clone()));
+            } else if ((method.getName().equals("executeQuery") || method.getName().equals("executeUpdate"))
+                    && (args == null || args.length == 0)) {
+                queries.add(new Query(sql, List.copyOf(bindings)));
+            } else if (method.getName().equals("clearParameters")) {
+                bindings.clear();
+            }
+            return result;
+        });
+    }
+
+    private interface AfterCall {
+        Object apply(Method method, Object[] args, Object result) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, AfterCall afterCall) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return afterCall.apply(method, args, result);
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
@@ -0,0 +1,97 @@
+package db.migration;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the migrations on H2 in MySQL mode, both on an empty database and on a hand-built one baselined at version 1
+class SchemaMigrationTest {
+
+    private static final List<String> VERSIONED_TABLES =
+            List.of("crops", "farmer_crops", "distributor_crops", "retailer_crops", "consumer_purchases");
+
+    @Test
+    void migratesEmptyDatabase() throws SQLException {
+        DataSource dataSource = h2("fresh");
+        migrate(dataSource);
+
+        assertV1Schema(dataSource);
+        // Rows created by the upgrade on an empty database start past any id the tables could hold
+        assertThat(nextVal(dataSource, "farmer_crops")).isEqualTo(51);
+    }
+
+    @Test
+    void upgradesBaselinedDatabase() throws SQLException {
+        DataSource dataSource = h2("baselined");
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema/pre-flyway.sql"));
+        }
+        migrate(dataSource);
+
+        assertV1Schema(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        assertThat(jdbc.queryForObject("SELECT farmer_id FROM users WHERE id = 1", String.class)).isEqualTo("007");
+        assertThat(jdbc.queryForObject("SELECT version FROM farmer_crops WHERE id = 120", Long.class)).isZero();
+        assertThat(nextVal(dataSource, "farmer_crops")).isEqualTo(120 + 51);
+        assertThat(nextVal(dataSource, "distributor_crops")).isEqualTo(40 + 51);
+        assertThat(nextVal(dataSource, "retailer_crops")).isEqualTo(51);
+        assertThat(nextVal(dataSource, "consumer_purchases")).isEqualTo(9 + 51);
+
+        // Four-digit ids fit once the columns are widened
+        jdbc.update("UPDATE users SET farmer_id = '1000' WHERE id = 1");
+    }
+
+    private static void assertV1Schema(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            assertThat(columnSize(metaData, "users", "token_version")).isPositive();
+            for (String table : List.of("users", "crops")) {
+                assertThat(columnSize(metaData, table, "farmer_id")).isEqualTo(10);
+                assertThat(columnSize(metaData, table, "distributor_id")).isEqualTo(10);
+            }
+            for (String table : VERSIONED_TABLES) {
+                assertThat(columnSize(metaData, table, "version")).as(table + ".version").isPositive();
+            }
+            assertThat(columnSize(metaData, "idempotency_keys", "key_hash")).isEqualTo(43);
+        }
+    }
+
+    private static void migrate(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private static long nextVal(DataSource dataSource, String generator) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "SELECT next_val FROM id_generators WHERE gen_name = ?", Long.class, generator);
+    }
+
+    private static int columnSize(DatabaseMetaData metaData, String table, String column) throws SQLException {
+        try (ResultSet columns = metaData.getColumns(null, null, table, column)) {
+            return columns.next() ? columns.getInt("COLUMN_SIZE") : -1;
+        }
+    }
+}
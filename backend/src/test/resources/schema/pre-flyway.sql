@@ -0,0 +1,142 @@
+-- The schema as databases were built by hand before Flyway, from the entities at that time: IDENTITY ids,
+-- three-character stakeholder ids on users and crops, no version columns, no id_generators or idempotency_keys.
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255),
+    password VARCHAR(255),
+    name VARCHAR(255),
+    location VARCHAR(255),
+    role VARCHAR(20),
+    farmer_id VARCHAR(3),
+    distributor_id VARCHAR(3),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    UNIQUE (email),
+    UNIQUE (farmer_id),
+    UNIQUE (distributor_id)
+);
+
+CREATE TABLE crops (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255),
+    crop_type VARCHAR(255),
+    harvest_date DATE,
+    expiry_date DATE,
+    soil_type VARCHAR(255),
+    pesticides_used VARCHAR(255),
+    image_url VARCHAR(255),
+    farmer_id VARCHAR(3),
+    farmer_name VARCHAR(255),
+    farmer_location VARCHAR(255),
+    distributor_id VARCHAR(3),
+    distributor_name VARCHAR(255),
+    distributor_location VARCHAR(255),
+    distributor_received_date DATE,
+    sent_to_retailer VARCHAR(255),
+    retailer_location VARCHAR(255),
+    retailer_name VARCHAR(255),
+    retailer_received_date DATE,
+    received_from_distributor VARCHAR(255),
+    distributor_location_retailer VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE farmer_crops (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255),
+    crop_type VARCHAR(255),
+    harvest_date DATE,
+    expiry_date DATE,
+    soil_type VARCHAR(255),
+    pesticides_used VARCHAR(255),
+    image_url VARCHAR(255),
+    farmer_id VARCHAR(10),
+    farmer_name VARCHAR(255),
+    farmer_location VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE distributor_crops (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255),
+    crop_type VARCHAR(255),
+    harvest_date DATE,
+    expiry_date DATE,
+    soil_type VARCHAR(255),
+    pesticides_used VARCHAR(255),
+    image_url VARCHAR(255),
+    farmer_id VARCHAR(10),
+    farmer_name VARCHAR(255),
+    farmer_location VARCHAR(255),
+    distributor_id VARCHAR(10),
+    distributor_name VARCHAR(255),
+    distributor_location VARCHAR(255),
+    distributor_received_date DATE,
+    sent_to_retailer VARCHAR(255),
+    retailer_location VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE retailer_crops (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255),
+    crop_type VARCHAR(255),
+    harvest_date DATE,
+    expiry_date DATE,
+    soil_type VARCHAR(255),
+    pesticides_used VARCHAR(255),
+    image_url VARCHAR(255),
+    farmer_id VARCHAR(10),
+    farmer_name VARCHAR(255),
+    farmer_location VARCHAR(255),
+    distributor_id VARCHAR(10),
+    distributor_name VARCHAR(255),
+    distributor_location VARCHAR(255),
+    distributor_received_date DATE,
+    retailer_name VARCHAR(255),
+    retailer_location_address VARCHAR(255),
+    retailer_received_date DATE,
+    received_from_distributor VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE consumer_purchases (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    crop_name VARCHAR(255),
+    crop_type VARCHAR(255),
+    purchase_date DATE,
+    purchased_from VARCHAR(255),
+    retailer_location VARCHAR(255),
+    farmer_id VARCHAR(10),
+    farmer_name VARCHAR(255),
+    distributor_id VARCHAR(10),
+    distributor_name VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+INSERT INTO users (id, email, name, role, farmer_id) VALUES (1, 'farmer@example.test', 'Farmer', 'FARMER', '007');
+INSERT INTO users (id, email, name, role, distributor_id) VALUES (2, 'distributor@example.test', 'Distributor', 'DISTRIBUTOR', '003');
+INSERT INTO farmer_crops (id, user_id, name, farmer_id) VALUES (120, 1, 'Tomato', '007');
+INSERT INTO distributor_crops (id, user_id, name, farmer_id, distributor_id) VALUES (40, 2, 'Tomato', '007', '003');
+INSERT INTO consumer_purchases (id, user_id, crop_name) VALUES (9, 2, 'Tomato');
@@ -0,0 +1,130 @@
+package com.farmchainx.benchmarks;
+
+import com.farmchainx.FarmChainXApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /api/crops round trip through the full stack: Tomcat, the security filter chain with JWT verification,
+ * the keyset query against an in-memory H2 database in MySQL mode, and JSON serialization. The application is
+ * started once per trial and seeded with 1,000 farmer crops through the batch endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CropListEndToEndBenchmark {
+
+    private static final int SEEDED_CROPS = 1000;
+
+    @Param({"10", "100", "1000"})
+    public int limit;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest listRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        // Command line arguments outrank application.yml, so the MySQL datasource and DEBUG logging are replaced
+        context = new SpringApplicationBuilder(FarmChainXApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=-1",
+                "--spring.profiles.active=dev",
+                "--spring.datasource.url=jdbc:h2:mem:benchmarks;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.farmchainx=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--farmchainx.crops.page.max-size=" + SEEDED_CROPS);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String baseUrl = "http://localhost:" + port + "/api";
+        client = HttpClient.newHttpClient();
+        ObjectMapper objectMapper = Fixtures.objectMapper();
+
+        post(baseUrl + "/auth/signup", null, objectMapper.writeValueAsString(Map.of(
+                "email", "bench.farmer@farmchainx.test", "password", "benchmark1", "name", "Bench Farmer",
+                "location", "Nashik, Maharashtra", "role", "FARMER")));
+        JsonNode signin = objectMapper.readTree(post(baseUrl + "/auth/signin", null, objectMapper.writeValueAsString(Map.of(
+                "email", "bench.farmer@farmchainx.test", "password", "benchmark1"))));
+        String token = signin.get("token").asText();
+
+        List<Map<String, Object>> crops = new ArrayList<>(SEEDED_CROPS);
+        for (int i = 1; i <= SEEDED_CROPS; i++) {
+            crops.add(Map.of(
+                    "name", "Organic Tomato " + i,
+                    "cropType", "Vegetable",
+                    "harvestDate", "2026-09-01",
+                    "expiryDate", "2026-09-" + (10 + i % 20),
+                    "soilType", "Black cotton soil",
+                    "pesticidesUsed", "None"));
+        }
+        post(baseUrl + "/crops/batch", token, objectMapper.writeValueAsString(crops));
+
+        listRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/crops?limit=" + limit))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] listCrops() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(listRequest, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /api/crops returned " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private String post(String url, String token, String json) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("POST " + url + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,58 @@
+package com.farmchainx.benchmarks;
+
+import com.farmchainx.dto.FarmerCropResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON for a crop list response, written straight to a stream as the message converter does. writeAsBytes
+ * shows the extra cost of first materialising the whole body in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CropListSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int rows;
+
+    private ObjectWriter writer;
+    private List<FarmerCropResponse> crops;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Fixtures.objectMapper();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, FarmerCropResponse.class));
+        crops = Fixtures.farmerCrops(rows).stream().map(FarmerCropResponse::from).toList();
+    }
+
+    @Benchmark
+    public void writeToStream() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), crops);
+    }
+
+    @Benchmark
+    public byte[] writeAsBytes() throws IOException {
+        return writer.writeValueAsBytes(crops);
+    }
+}
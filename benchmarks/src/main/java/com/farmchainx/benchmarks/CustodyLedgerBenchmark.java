@@ -0,0 +1,105 @@
+package com.farmchainx.benchmarks;
+
+import com.farmchainx.FarmChainXApplication;
+import com.farmchainx.event.CropChangedEvent;
+import com.farmchainx.model.CustodyStage;
+import com.farmchainx.service.CustodyLedger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * One delivery's worth of crop updates through the custody ledger: record() in the writing transaction, which
+ * fills the outbox, then append() until the outbox is empty, which reads and digests the records, then hashes,
+ * inserts and seals under the chain head lock. Runs against an in-memory H2 database in MySQL mode; the background writer is
+ * stopped so every change is appended on the benchmark thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustodyLedgerBenchmark {
+
+    private static final int SEEDED_CROPS = 1024;
+
+    @Param({"1", "64", "1024"})
+    public int changes;
+
+    private ConfigurableApplicationContext context;
+    private CustodyLedger ledger;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        context = new SpringApplicationBuilder(FarmChainXApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=-1",
+                "--spring.profiles.active=dev",
+                "--spring.datasource.url=jdbc:h2:mem:ledger-benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.farmchainx=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--farmchainx.ledger.batch-size=" + SEEDED_CROPS);
+        ledger = context.getBean(CustodyLedger.class);
+        ledger.stop();
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("""
+                INSERT INTO users (id, email, name, role, location, farmer_id, created_at, updated_at)
+                VALUES (1, 'bench.farmer@farmchainx.test', 'Bench Farmer', 'FARMER', 'Nashik, Maharashtra', '001',
+                    CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO farmer_crops (id, user_id, name, crop_type, harvest_date, expiry_date, soil_type,
+                    pesticides_used, farmer_id, farmer_name, farmer_location, created_at, updated_at)
+                SELECT x, 1, CONCAT('Organic Tomato ', x), 'Vegetable', DATE '2026-09-01', DATE '2026-09-20',
+                    'Black cotton soil', 'None', '001', 'Bench Farmer', 'Nashik, Maharashtra',
+                    CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+                FROM SYSTEM_RANGE(1, ?) AS r (x)
+                """, SEEDED_CROPS);
+        ids = LongStream.rangeClosed(1, changes).boxed().toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int recordAndAppend() {
+        transactionTemplate.executeWithoutResult(status ->
+                ledger.record(CustodyStage.FARMER, ids, CropChangedEvent.Type.UPDATED));
+        int appended = 0;
+        while (appended < changes) {
+            appended += ledger.append();
+        }
+        return appended;
+    }
+}
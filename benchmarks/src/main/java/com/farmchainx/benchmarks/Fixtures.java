@@ -0,0 +1,145 @@
+package com.farmchainx.benchmarks;
+
+import com.farmchainx.model.DistributorCrop;
+import com.farmchainx.model.FarmerCrop;
+import com.farmchainx.model.RetailerCrop;
+import com.farmchainx.model.User;
+import com.farmchainx.model.UserRole;
+import com.farmchainx.security.JwtUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the beans and rows the benchmarks exercise the same way the application does, without starting Spring.
+ */
+public final class Fixtures {
+
+    private static final LocalDate HARVEST = LocalDate.of(2026, 9, 1);
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 9, 2, 8, 30);
+
+    private Fixtures() {
+    }
+
+    // Same builder Spring Boot configures its ObjectMapper from: ISO dates, java.time support
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    public static JwtUtils jwtUtils(long verifiedTokenCacheSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        set(jwtUtils, "jwtSecret", "benchmarkSecretKey12345678901234567890123456789");
+        set(jwtUtils, "jwtExpirationMs", 86_400_000);
+        set(jwtUtils, "verifiedTokenCacheSize", verifiedTokenCacheSize);
+        set(jwtUtils, "meterRegistry", new SimpleMeterRegistry());
+        Method init = ReflectionUtils.findMethod(JwtUtils.class, "init");
+        ReflectionUtils.makeAccessible(init);
+        ReflectionUtils.invokeMethod(init, jwtUtils);
+        return jwtUtils;
+    }
+
+    public static User farmer(long id) {
+        User user = new User("farmer" + id + "@farmchainx.test", null, "Farmer " + id, "Nashik, Maharashtra",
+                UserRole.FARMER);
+        user.setId(id);
+        user.setFarmerId(String.format("%03d", id));
+        return user;
+    }
+
+    public static List<FarmerCrop> farmerCrops(int count) {
+        User farmer = farmer(1);
+        List<FarmerCrop> crops = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            FarmerCrop crop = new FarmerCrop();
+            crop.setId((long) i);
+            crop.setUser(farmer);
+            crop.setName("Organic Tomato " + i);
+            crop.setCropType("Vegetable");
+            crop.setHarvestDate(HARVEST);
+            crop.setExpiryDate(HARVEST.plusDays(14 + i % 30));
+            crop.setSoilType("Black cotton soil");
+            crop.setPesticidesUsed(i % 3 == 0 ? "Neem oil" : "None");
+            crop.setImageUrl("https://images.farmchainx.test/crops/" + i + ".jpg");
+            crop.setFarmerId(farmer.getFarmerId());
+            crop.setFarmerName(farmer.getName());
+            crop.setFarmerLocation(farmer.getLocation());
+            crop.setCreatedAt(CREATED);
+            crop.setUpdatedAt(CREATED);
+            crop.setVersion(0L);
+            crops.add(crop);
+        }
+        return crops;
+    }
+
+    public static List<DistributorCrop> distributorCrops(int count) {
+        List<DistributorCrop> crops = new ArrayList<>(count);
+        for (FarmerCrop source : farmerCrops(count)) {
+            DistributorCrop crop = new DistributorCrop();
+            crop.setId(source.getId());
+            crop.setName(source.getName());
+            crop.setCropType(source.getCropType());
+            crop.setHarvestDate(source.getHarvestDate());
+            crop.setExpiryDate(source.getExpiryDate());
+            crop.setSoilType(source.getSoilType());
+            crop.setPesticidesUsed(source.getPesticidesUsed());
+            crop.setImageUrl(source.getImageUrl());
+            crop.setFarmerId(source.getFarmerId());
+            crop.setFarmerName(source.getFarmerName());
+            crop.setFarmerLocation(source.getFarmerLocation());
+            crop.setDistributorId("001");
+            crop.setDistributorName("Western Produce Logistics");
+            crop.setDistributorLocation("Pune, Maharashtra");
+            crop.setDistributorReceivedDate(HARVEST.plusDays(2));
+            crop.setCreatedAt(CREATED);
+            crop.setUpdatedAt(CREATED);
+            crop.setVersion(0L);
+            crops.add(crop);
+        }
+        return crops;
+    }
+
+    public static List<RetailerCrop> retailerCrops(int count) {
+        List<RetailerCrop> crops = new ArrayList<>(count);
+        for (DistributorCrop source : distributorCrops(count)) {
+            RetailerCrop crop = new RetailerCrop();
+            crop.setId(source.getId());
+            crop.setName(source.getName());
+            crop.setCropType(source.getCropType());
+            crop.setHarvestDate(source.getHarvestDate());
+            crop.setExpiryDate(source.getExpiryDate());
+            crop.setSoilType(source.getSoilType());
+            crop.setPesticidesUsed(source.getPesticidesUsed());
+            crop.setImageUrl(source.getImageUrl());
+            crop.setFarmerId(source.getFarmerId());
+            crop.setFarmerName(source.getFarmerName());
+            crop.setFarmerLocation(source.getFarmerLocation());
+            crop.setDistributorId(source.getDistributorId());
+            crop.setDistributorName(source.getDistributorName());
+            crop.setDistributorLocation(source.getDistributorLocation());
+            crop.setDistributorReceivedDate(source.getDistributorReceivedDate());
+            crop.setRetailerName("Green Basket Mart");
+            crop.setRetailerLocationAddress("MG Road, Mumbai");
+            crop.setRetailerReceivedDate(HARVEST.plusDays(4));
+            crop.setReceivedFromDistributor(source.getDistributorName());
+            crop.setCreatedAt(CREATED);
+            crop.setUpdatedAt(CREATED);
+            crop.setVersion(0L);
+            crops.add(crop);
+        }
+        return crops;
+    }
+
+    private static void set(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,68 @@
+package com.farmchainx.benchmarks;
+
+import com.farmchainx.model.User;
+import com.farmchainx.security.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue at sign-in and token verification on every authenticated request. With verifiedTokens off each
+ * call cycles through distinct tokens, so it measures a full HMAC check and claims parse.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final int TOKENS = 1024;
+
+    @Param({"true", "false"})
+    public boolean verifiedTokenCache;
+
+    private JwtUtils jwtUtils;
+    private Authentication authentication;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = Fixtures.jwtUtils(verifiedTokenCache ? 10_000 : 0);
+        User user = Fixtures.farmer(1);
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+
+        tokens = new String[verifiedTokenCache ? 1 : TOKENS];
+        for (int i = 0; i < tokens.length; i++) {
+            User holder = Fixtures.farmer(i + 1);
+            tokens[i] = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(holder, null, holder.getAuthorities()));
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        String token = tokens[next];
+        next = (next + 1) % tokens.length;
+        return jwtUtils.parseJwtClaims(token);
+    }
+}
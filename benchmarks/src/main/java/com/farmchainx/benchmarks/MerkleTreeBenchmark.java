@@ -0,0 +1,56 @@
+package com.farmchainx.benchmarks;
+
+import com.farmchainx.dto.InclusionProof;
+import com.farmchainx.service.MerkleTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Sealing a ledger batch (root) and answering a proof request (path) for the configured batch sizes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MerkleTreeBenchmark {
+
+    @Param({"256", "1024", "4096"})
+    public int leaves;
+
+    private List<String> hashes;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        hashes = new ArrayList<>(leaves);
+        for (int i = 0; i < leaves; i++) {
+            hashes.add(HexFormat.of().formatHex(sha256.digest(Integer.toString(i).getBytes())));
+        }
+    }
+
+    @Benchmark
+    public String root() {
+        return MerkleTree.root(hashes);
+    }
+
+    @Benchmark
+    public List<InclusionProof.Step> path() {
+        return MerkleTree.path(hashes, leaves / 2 + 1);
+    }
+}
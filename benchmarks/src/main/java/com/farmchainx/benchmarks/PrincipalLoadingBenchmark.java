@@ -0,0 +1,60 @@
+package com.farmchainx.benchmarks;
+
+import com.farmchainx.model.User;
+import com.farmchainx.security.JwtUtils;
+import com.farmchainx.service.PrincipalCache;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two ways AuthTokenFilter turns verified claims into a principal: building it from the signed claims in
+ * stateless mode, or a PrincipalCache hit in front of the users table. The cache miss is a database read and is
+ * covered by the end-to-end benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrincipalLoadingBenchmark {
+
+    private JwtUtils jwtUtils;
+    private PrincipalCache principalCache;
+    private Claims claims;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = Fixtures.jwtUtils(10_000);
+        principalCache = new PrincipalCache(10_000, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        user = Fixtures.farmer(1);
+        claims = jwtUtils.parseJwtClaims(
+                jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities())));
+        principalCache.get(user.getEmail(), email -> user);
+    }
+
+    @Benchmark
+    public User fromClaims() {
+        return jwtUtils.buildPrincipal(claims);
+    }
+
+    @Benchmark
+    public User fromCache() {
+        return principalCache.get(claims.getSubject(), email -> user);
+    }
+}
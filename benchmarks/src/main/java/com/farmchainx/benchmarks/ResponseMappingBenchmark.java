@@ -0,0 +1,59 @@
+package com.farmchainx.benchmarks;
+
+import com.farmchainx.dto.DistributorCropResponse;
+import com.farmchainx.dto.FarmerCropResponse;
+import com.farmchainx.dto.RetailerCropResponse;
+import com.farmchainx.model.DistributorCrop;
+import com.farmchainx.model.FarmerCrop;
+import com.farmchainx.model.RetailerCrop;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity to response record conversion for one page of each stage
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    private static final int PAGE = 1000;
+
+    private List<FarmerCrop> farmerCrops;
+    private List<DistributorCrop> distributorCrops;
+    private List<RetailerCrop> retailerCrops;
+
+    @Setup
+    public void setUp() {
+        farmerCrops = Fixtures.farmerCrops(PAGE);
+        distributorCrops = Fixtures.distributorCrops(PAGE);
+        retailerCrops = Fixtures.retailerCrops(PAGE);
+    }
+
+    @Benchmark
+    public List<FarmerCropResponse> farmerPage() {
+        return farmerCrops.stream().map(FarmerCropResponse::from).toList();
+    }
+
+    @Benchmark
+    public List<DistributorCropResponse> distributorPage() {
+        return distributorCrops.stream().map(DistributorCropResponse::from).toList();
+    }
+
+    @Benchmark
+    public List<RetailerCropResponse> retailerPage() {
+        return retailerCrops.stream().map(RetailerCropResponse::from).toList();
+    }
+}
@@ -0,0 +1,294 @@
+package com.farmchainx.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load driver for a backend started with the perf profile. Requests arrive on a Poisson schedule at
+ * the given rate whether or not earlier ones have finished, and each latency is measured from the request's
+ * scheduled start, so a stalled server shows up as queueing delay instead of silently lowering the offered load.
+ * Reports p50/p99/p99.9 latency and throughput per endpoint on stdout and as JSON.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.farmchainx.benchmarks.load.LoadDriver \
+ *     --base-url=http://localhost:8080/api --rate=200 --duration=PT60S --mix=signin:5,list:55,create:10,scan:30
+ * </pre>
+ */
+public final class LoadDriver {
+
+    enum Operation {
+        SIGNIN("POST /auth/signin"),
+        LIST("GET /crops"),
+        CREATE("POST /crops"),
+        SCAN("GET /crops/scan/{id}");
+
+        final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    record Options(String baseUrl, double rate, Duration duration, Duration warmup, Map<Operation, Integer> mix,
+                   int users, String password, String emailDomain, int listLimit, int maxInFlight, long seed,
+                   Path out) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new LinkedHashMap<>();
+            values.put("base-url", "http://localhost:8080/api");
+            values.put("rate", "100");
+            values.put("duration", "PT60S");
+            values.put("warmup", "PT10S");
+            values.put("mix", "signin:5,list:55,create:10,scan:30");
+            values.put("users", "20");
+            values.put("password", "perf-password");
+            values.put("email-domain", "perf.farmchainx.test");
+            values.put("list-limit", "20");
+            values.put("max-in-flight", "2000");
+            values.put("seed", "42");
+            values.put("out", "target/load-report.json");
+            for (String arg : args) {
+                String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+                if (pair.length != 2 || !values.containsKey(pair[0])) {
+                    throw new IllegalArgumentException("Unknown option " + arg + "; options are --" + String.join("=, --", values.keySet()) + "=");
+                }
+                values.put(pair[0], pair[1]);
+            }
+
+            Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+            for (String entry : values.get("mix").split(",")) {
+                String[] weight = entry.split(":", 2);
+                mix.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+            }
+            return new Options(values.get("base-url"), Double.parseDouble(values.get("rate")),
+                    Duration.parse(values.get("duration")), Duration.parse(values.get("warmup")), mix,
+                    Integer.parseInt(values.get("users")), values.get("password"), values.get("email-domain"),
+                    Integer.parseInt(values.get("list-limit")), Integer.parseInt(values.get("max-in-flight")),
+                    Long.parseLong(values.get("seed")), Path.of(values.get("out")));
+        }
+    }
+
+    record EndpointReport(String endpoint, long requests, long errors, long dropped, double throughput,
+                          double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+
+    record Report(Options options, double offeredRate, double measuredSeconds, List<EndpointReport> endpoints) {
+    }
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Options options;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> dropped = new EnumMap<>(Operation.class);
+
+    private final List<String> emails = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<Long> scanIds = new ArrayList<>();
+
+    private LoadDriver(Options options) {
+        this.options = options;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new AtomicLong());
+            dropped.put(operation, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        new LoadDriver(Options.parse(args)).run();
+    }
+
+    private void run() throws IOException, InterruptedException {
+        prepare();
+        System.out.printf("Offering %.1f req/s for %s after %s warmup, mix %s%n",
+                options.rate(), options.duration(), options.warmup(), options.mix());
+
+        Random random = new Random(options.seed());
+        Operation[] wheel = wheel(options.mix());
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        long intended = start;
+        while (intended < end) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = wheel[random.nextInt(wheel.length)];
+            boolean measured = intended >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    dropped.get(operation).incrementAndGet();
+                }
+            } else {
+                long scheduled = intended;
+                client.sendAsync(request(operation, random), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, failure) -> {
+                            long latency = System.nanoTime() - scheduled;
+                            inFlight.release();
+                            if (!measured) {
+                                return;
+                            }
+                            if (failure != null || response.statusCode() >= 400) {
+                                errors.get(operation).incrementAndGet();
+                            } else {
+                                latencies.get(operation).recordValue(latency);
+                            }
+                        });
+            }
+            // Exponential gaps make arrivals a Poisson process at the offered rate
+            intended += (long) (-Math.log(1 - random.nextDouble()) / options.rate() * 1_000_000_000L);
+        }
+        if (!inFlight.tryAcquire(options.maxInFlight(), REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            System.out.println("Some requests were still outstanding when the report was taken");
+        }
+
+        report(options.duration().toNanos() / 1e9);
+    }
+
+    // Signs in the seeded farmers and collects crop ids to scan
+    private void prepare() throws IOException, InterruptedException {
+        for (int i = 1; i <= options.users(); i++) {
+            String email = "farmer" + i + "@" + options.emailDomain();
+            HttpResponse<String> response = client.send(signin(email), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Sign-in as " + email + " failed with " + response.statusCode()
+                        + "; is the backend running with --spring.profiles.active=perf?");
+            }
+            emails.add(email);
+            tokens.add(objectMapper.readTree(response.body()).get("token").asText());
+        }
+        for (String token : tokens) {
+            HttpRequest list = HttpRequest.newBuilder(URI.create(options.baseUrl() + "/crops?limit=100"))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(REQUEST_TIMEOUT)
+                    .build();
+            for (JsonNode crop : objectMapper.readTree(client.send(list, HttpResponse.BodyHandlers.ofString()).body())) {
+                scanIds.add(crop.get("id").asLong());
+            }
+        }
+        if (scanIds.isEmpty()) {
+            throw new IllegalStateException("The seeded farmers have no crops to scan");
+        }
+    }
+
+    private HttpRequest request(Operation operation, Random random) {
+        String token = tokens.get(random.nextInt(tokens.size()));
+        return switch (operation) {
+            case SIGNIN -> signin(emails.get(random.nextInt(emails.size())));
+            case LIST -> HttpRequest.newBuilder(URI.create(options.baseUrl() + "/crops?limit=" + options.listLimit()))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(REQUEST_TIMEOUT)
+                    .build();
+            case CREATE -> HttpRequest.newBuilder(URI.create(options.baseUrl() + "/crops"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .timeout(REQUEST_TIMEOUT)
+                    .POST(HttpRequest.BodyPublishers.ofString(json(Map.of(
+                            "name", "Load Test Tomato " + random.nextInt(1000),
+                            "cropType", "Vegetable",
+                            "harvestDate", LocalDate.now(),
+                            "expiryDate", LocalDate.now().plusDays(14),
+                            "soilType", "Black cotton soil",
+                            "pesticidesUsed", "None"))))
+                    .build();
+            case SCAN -> HttpRequest.newBuilder(URI.create(options.baseUrl() + "/crops/scan/"
+                            + scanIds.get(random.nextInt(scanIds.size())) + "?stage=FARMER"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .build();
+        };
+    }
+
+    private HttpRequest signin(String email) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl() + "/auth/signin"))
+                .header("Content-Type", "application/json")
+                .timeout(REQUEST_TIMEOUT)
+                .POST(HttpRequest.BodyPublishers.ofString(json(Map.of("email", email, "password", options.password()))))
+                .build();
+    }
+
+    private void report(double measuredSeconds) throws IOException {
+        List<EndpointReport> endpoints = new ArrayList<>();
+        System.out.printf("%n%-22s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Dropped", "Req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : options.mix().keySet()) {
+            Histogram histogram = latencies.get(operation);
+            EndpointReport endpoint = new EndpointReport(operation.endpoint, histogram.getTotalCount(),
+                    errors.get(operation).get(), dropped.get(operation).get(),
+                    histogram.getTotalCount() / measuredSeconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+            endpoints.add(endpoint);
+            System.out.printf("%-22s %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint.endpoint(),
+                    endpoint.requests(), endpoint.errors(), endpoint.dropped(), endpoint.throughput(),
+                    endpoint.p50Ms(), endpoint.p99Ms(), endpoint.p999Ms(), endpoint.maxMs());
+        }
+
+        Path out = options.out().toAbsolutePath();
+        Files.createDirectories(out.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(out.toFile(), new Report(options, options.rate(), measuredSeconds, endpoints));
+        System.out.println("\nReport written to " + out);
+    }
+
+    // Each operation appears in proportion to its weight, so a uniform pick follows the mix
+    private static Operation[] wheel(Map<Operation, Integer> mix) {
+        List<Operation> wheel = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(operation);
+            }
+        });
+        if (wheel.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no operations with a positive weight");
+        }
+        return wheel.toArray(Operation[]::new);
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
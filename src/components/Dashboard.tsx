@@ -4,6 +4,7 @@ import { Plus, Search, Filter, CreditCard as Edit, Trash2, Calendar, Wheat, Pack
 import { Crop } from '../types';
 import { useAuth } from '../hooks/useAuth';
 import { storage } from '../lib/storage';
+import { ScanLabel } from '../lib/provenanceToken';
 import CropForm from './CropForm';
 import SupplyChainForm from './SupplyChainForm';
 import FarmerCropSelector from './FarmerCropSelector';
@@ -15,6 +16,41 @@ import CompactPriceTrends from './CompactPriceTrends';
 import AdminDashboard from './AdminDashboard';
 import AIChatbot from './AIChatbot';
 
+const HOP_TITLES: Record<string, string> = {
+  FARMER: '👨‍🌾 FARMER',
+  DISTRIBUTOR: '🚛 DISTRIBUTOR',
+  RETAILER: '🏪 RETAILER',
+  CONSUMER: '🛒 PURCHASE'
+};
+
+const describeLabel = (label: ScanLabel) => {
+  let info = label.verified
+    ? `✅ VERIFIED LABEL\n\n`
+    : `⚠️ LABEL SIGNATURE NOT VERIFIED - details loaded from FarmChainX\n\n`;
+  info += `🌾 CROP INFORMATION\n\n`;
+  info += `Name: ${label.name}\n`;
+  info += `Type: ${label.cropType}\n`;
+  if (label.harvestDate) {
+    info += `Harvest Date: ${new Date(label.harvestDate).toLocaleDateString()}\n`;
+  }
+  if (label.expiryDate) {
+    info += `Expiry Date: ${new Date(label.expiryDate).toLocaleDateString()}\n`;
+  }
+  info += `Farmer ID: ${label.farmerId}\n`;
+  info += `Farm Location: ${label.farmerLocation}\n`;
+
+  for (const hop of label.hops) {
+    info += `\n${HOP_TITLES[hop.stage] ?? hop.stage}\n`;
+    if (hop.holder) {
+      info += `Name: ${hop.holder}\n`;
+    }
+    if (hop.date) {
+      info += `Date: ${new Date(hop.date).toLocaleDateString()}\n`;
+    }
+  }
+  return info;
+};
+
 const Dashboard: React.FC = () => {
   const [crops, setCrops] = useState<Crop[]>([]);
   const [loading, setLoading] = useState(true);
@@ -89,7 +125,7 @@ const Dashboard: React.FC = () => {
           soilType: cropData.soil_type,
           pesticidesUsed: cropData.pesticides_used,
           imageUrl: cropData.image_url
-        });
+        }, editingCrop?.version);
         
         if (response.data) {
           console.log('Crop updated successfully');
@@ -195,8 +231,14 @@ const Dashboard: React.FC = () => {
     setShowAIAnalysis(crop);
   };
 
-  const handleScanResult = (cropId: string) => {
-    const crop = storage.findCrop(cropId);
+  const handleScanResult = (scan: ScanLabel | string) => {
+    if (typeof scan !== 'string') {
+      alert(describeLabel(scan));
+      setShowScanner(false);
+      return;
+    }
+    // Labels printed before stages were recorded only resolve against crops stored on this device
+    const crop = storage.findCrop(scan);
     if (crop) {
       // Show detailed supply chain information
       let supplyChainInfo = `🌾 CROP INFORMATION\n\n`;
@@ -545,6 +587,7 @@ const Dashboard: React.FC = () => {
       {showQRCode && (
         <QRCodeModal
           crop={showQRCode}
+          stage={(user?.role || 'farmer').toUpperCase()}
           onClose={() => setShowQRCode(null)}
         />
       )}
@@ -2,21 +2,30 @@ import React, { useEffect, useRef } from 'react';
 import { X, Download, QrCode } from 'lucide-react';
 import QRCode from 'qrcode';
 import { Crop } from '../types';
+import { apiService } from '../lib/api';
 
 interface QRCodeModalProps {
   crop: Crop;
+  // Custody stage the crop record belongs to, e.g. FARMER; ids are only unique within a stage
+  stage: string;
   onClose: () => void;
 }
 
-const QRCodeModal: React.FC<QRCodeModalProps> = ({ crop, onClose }) => {
+const QRCodeModal: React.FC<QRCodeModalProps> = ({ crop, stage, onClose }) => {
   const canvasRef = useRef<HTMLCanvasElement>(null);
 
   useEffect(() => {
-    if (canvasRef.current) {
-      // Simple QR code with just crop ID
+    let cancelled = false;
+
+    const render = async () => {
+      // Signed provenance token so scanners can verify offline; stage and ID still resolve online if issuing fails
+      const result = await apiService.getProvenanceToken(stage, crop.id);
+      if (cancelled || !canvasRef.current) {
+        return;
+      }
       QRCode.toCanvas(
         canvasRef.current,
-        crop.id, // Just the crop ID for simplicity
+        result.data?.token ?? JSON.stringify({ stage, id: crop.id }),
         {
           width: 300,
           margin: 2,
@@ -26,8 +35,13 @@ const QRCodeModal: React.FC<QRCodeModalProps> = ({ crop, onClose }) => {
           }
         }
       );
-    }
-  }, [crop]);
+    };
+
+    render();
+    return () => {
+      cancelled = true;
+    };
+  }, [crop, stage]);
 
   const handleDownload = () => {
     if (canvasRef.current) {
@@ -1,10 +1,63 @@
 import React, { useEffect, useRef, useState } from 'react';
 import { X, Camera } from 'lucide-react';
 import QrScanner from 'qr-scanner';
+import { apiService } from '../lib/api';
+import {
+  ScanLabel,
+  decodeProvenanceToken,
+  isProvenanceToken,
+  labelFromToken,
+  labelFromTrace,
+  loadProvenanceKey,
+  verifyProvenanceToken
+} from '../lib/provenanceToken';
+
+// Signed tokens carry the whole label; older labels hold a stage and ID as JSON, or a bare crop ID
+const parseScan = (data: string): { token?: string; stage?: string; id?: string } => {
+  if (isProvenanceToken(data)) {
+    return { token: data };
+  }
+  try {
+    const parsed = JSON.parse(data);
+    return { stage: parsed.stage, id: parsed.id !== undefined ? String(parsed.id) : undefined };
+  } catch {
+    // If parsing fails, treat as direct crop ID
+    return { id: data };
+  }
+};
+
+// A verified token is shown as is; anything else is looked up on the backend by stage and ID. A bare ID has no
+// stage, so it is returned for the caller to look up locally.
+const resolveScan = async (data: string): Promise<ScanLabel | string> => {
+  const scan = parseScan(data);
+  let { stage, id } = scan;
+  if (scan.token) {
+    const decoded = decodeProvenanceToken(scan.token);
+    const publicKey = await loadProvenanceKey(decoded.keyId).catch(() => null);
+    if (publicKey && await verifyProvenanceToken(decoded, publicKey).catch(() => false)) {
+      return labelFromToken(decoded);
+    }
+    // Only the record it points at is trusted from an unverified token
+    const self = decoded.hops[decoded.hops.length - 1];
+    stage = self?.stage;
+    id = self ? String(self.id) : undefined;
+  }
+  if (!id) {
+    throw new Error('Invalid QR code format - no crop ID found');
+  }
+  if (!stage) {
+    return id;
+  }
+  const result = await apiService.getCropForScanning(stage, id);
+  if (!result.data) {
+    throw new Error('Crop not found for this QR code');
+  }
+  return labelFromTrace(result.data);
+};
 
 interface QRScannerModalProps {
   onClose: () => void;
-  onScanResult: (cropId: string) => void;
+  onScanResult: (scan: ScanLabel | string) => void;
 }
 
 const QRScannerModal: React.FC<QRScannerModalProps> = ({ onClose, onScanResult }) => {
@@ -12,31 +65,28 @@ const QRScannerModal: React.FC<QRScannerModalProps> = ({ onClose, onScanResult }
   const [scanner, setScanner] = useState<QrScanner | null>(null);
   const [error, setError] = useState<string>('');
   const [hasCamera, setHasCamera] = useState<boolean>(true);
+  const resolving = useRef(false);
+
+  // The camera reports the same code many times a second, so one label is resolved at a time
+  const handleScan = async (data: string) => {
+    if (resolving.current) {
+      return;
+    }
+    resolving.current = true;
+    try {
+      onScanResult(await resolveScan(data));
+    } catch (err) {
+      setError(err instanceof Error ? err.message : 'Could not process QR code data');
+    } finally {
+      resolving.current = false;
+    }
+  };
 
   useEffect(() => {
     if (videoRef.current) {
       const qrScanner = new QrScanner(
         videoRef.current,
-        (result) => {
-          try {
-            // Handle both direct crop ID and full crop data
-            let cropData;
-            try {
-              cropData = JSON.parse(result.data);
-            } catch {
-              // If parsing fails, treat as direct crop ID
-              cropData = { id: result.data };
-            }
-            
-            if (cropData.id) {
-              onScanResult(cropData.id);
-            } else {
-              setError('Invalid QR code format - no crop ID found');
-            }
-          } catch (err) {
-            setError('Could not process QR code data');
-          }
-        },
+        (result) => handleScan(result.data),
         {
           highlightScanRegion: true,
           highlightCodeOutline: true,
@@ -62,27 +112,7 @@ const QRScannerModal: React.FC<QRScannerModalProps> = ({ onClose, onScanResult }
     const file = event.target.files?.[0];
     if (file && scanner) {
       QrScanner.scanImage(file)
-        .then((result) => {
-          try {
-            // Handle both direct crop ID and full crop data
-            let cropData;
-            try {
-              cropData = JSON.parse(result);
-            } catch {
-              // If parsing fails, treat as direct crop ID
-              cropData = { id: result };
-            }
-            
-            if (cropData.id) {
-              onScanResult(cropData.id);
-            } else {
-              setError('Invalid QR code format - no crop ID found');
-            }
-          } catch (err) {
-            setError('Could not process QR code data');
-          }
-        })
-        .catch(() => {
+        .then(handleScan, () => {
           setError('No QR code found in image');
         });
     }
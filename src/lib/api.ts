@@ -1,4 +1,8 @@
+import { ScanTrace } from '../types';
+
 const API_BASE_URL = 'http://localhost:8080/api';
+// Crop listings are served in keyset pages of at most this many rows
+const CROP_PAGE_SIZE = 500;
 
 interface ApiResponse<T> {
   data?: T;
@@ -79,21 +83,37 @@ class ApiService {
   // Crop APIs
   async getCrops(): Promise<ApiResponse<any[]>> {
     try {
-      const response = await fetch(`${API_BASE_URL}/crops`, {
-        headers: this.getAuthHeaders()
-      });
-
-      const result = await this.handleResponse(response);
-      if (result.data) {
-        result.data = result.data.map(this.transformCropFromBackend);
-      }
-      return result;
+      return await this.getAllCropPages('/crops');
     } catch (error) {
       console.error('Get crops failed:', error);
       return { error: 'Network error occurred' };
     }
   }
 
+  // Follows X-Next-Cursor until the last page, so users with more crops than one page still see all of them
+  private async getAllCropPages(path: string): Promise<ApiResponse<any[]>> {
+    const crops: any[] = [];
+    let cursor: string | null = null;
+    do {
+      const query = new URLSearchParams({ limit: String(CROP_PAGE_SIZE) });
+      if (cursor) {
+        query.set('cursor', cursor);
+      }
+      const response = await fetch(`${API_BASE_URL}${path}?${query}`, {
+        headers: this.getAuthHeaders()
+      });
+
+      const result = await this.handleResponse<any[]>(response);
+      if (result.error) {
+        return result;
+      }
+      crops.push(...(result.data || []));
+      cursor = response.headers.get('X-Next-Cursor');
+    } while (cursor);
+
+    return { data: crops.map(this.transformCropFromBackend) };
+  }
+
   // Transform backend crop to frontend format
   private transformCropFromBackend(backendCrop: any): any {
     return {
@@ -107,6 +127,7 @@ class ApiService {
       image_url: backendCrop.imageUrl || '',
       user_id: backendCrop.user?.id?.toString() || '',
       created_at: backendCrop.createdAt || new Date().toISOString(),
+      version: backendCrop.version,
       farmer_info: backendCrop.farmerId ? {
         farmer_id: backendCrop.farmerId,
         name: backendCrop.farmerName || '',
@@ -154,12 +175,17 @@ class ApiService {
     }
   }
 
-  async updateCrop(cropId: string, cropData: any): Promise<ApiResponse<any>> {
+  async updateCrop(cropId: string, cropData: any, version?: number): Promise<ApiResponse<any>> {
     try {
       console.log('Updating crop', cropId, 'with backend data:', cropData);
+      const headers = new Headers(this.getAuthHeaders());
+      // Lets the backend reject the edit with 409 if someone else saved the crop in the meantime
+      if (version !== undefined) {
+        headers.set('If-Match', `"${version}"`);
+      }
       const response = await fetch(`${API_BASE_URL}/crops/${cropId}`, {
         method: 'PUT',
-        headers: this.getAuthHeaders(),
+        headers,
         body: JSON.stringify(cropData)
       });
 
@@ -194,15 +220,7 @@ class ApiService {
 
   async getCropsByFarmerId(farmerId: string): Promise<ApiResponse<any[]>> {
     try {
-      const response = await fetch(`${API_BASE_URL}/crops/farmer/${farmerId}`, {
-        headers: this.getAuthHeaders()
-      });
-
-      const result = await this.handleResponse(response);
-      if (result.data) {
-        result.data = result.data.map(this.transformCropFromBackend);
-      }
-      return result;
+      return await this.getAllCropPages(`/crops/farmer/${farmerId}`);
     } catch (error) {
       return { error: 'Network error occurred' };
     }
@@ -210,28 +228,35 @@ class ApiService {
 
   async getCropsByDistributorId(distributorId: string): Promise<ApiResponse<any[]>> {
     try {
-      const response = await fetch(`${API_BASE_URL}/crops/distributor/${distributorId}`, {
-        headers: this.getAuthHeaders()
-      });
+      return await this.getAllCropPages(`/crops/distributor/${distributorId}`);
+    } catch (error) {
+      return { error: 'Network error occurred' };
+    }
+  }
 
-      const result = await this.handleResponse(response);
-      if (result.data) {
-        result.data = result.data.map(this.transformCropFromBackend);
-      }
-      return result;
+  // The scanned record's custody chain, farm first; ids are only unique within a stage
+  async getCropForScanning(stage: string, cropId: string): Promise<ApiResponse<ScanTrace>> {
+    try {
+      const response = await fetch(`${API_BASE_URL}/crops/scan/${cropId}?stage=${stage}`);
+      return await this.handleResponse(response);
     } catch (error) {
       return { error: 'Network error occurred' };
     }
   }
 
-  async getCropForScanning(cropId: string): Promise<ApiResponse<any>> {
+  async getProvenanceToken(stage: string, cropId: string): Promise<ApiResponse<{ stage: string; id: number; token: string }>> {
     try {
-      const response = await fetch(`${API_BASE_URL}/crops/scan/${cropId}`);
-      const result = await this.handleResponse(response);
-      if (result.data) {
-        result.data = this.transformCropFromBackend(result.data);
-      }
-      return result;
+      const response = await fetch(`${API_BASE_URL}/crops/scan/${cropId}/token?stage=${stage}`);
+      return await this.handleResponse(response);
+    } catch (error) {
+      return { error: 'Network error occurred' };
+    }
+  }
+
+  async getProvenanceKey(): Promise<ApiResponse<{ algorithm: string; keyId: string; publicKey: string }>> {
+    try {
+      const response = await fetch(`${API_BASE_URL}/crops/provenance-key`);
+      return await this.handleResponse(response);
     } catch (error) {
       return { error: 'Network error occurred' };
     }
@@ -0,0 +1,167 @@
+import { apiService } from './api';
+import { ScanTrace } from '../types';
+
+// Reads the signed provenance tokens the backend puts on QR labels (see ProvenanceTokenService for the layout)
+export const TOKEN_PREFIX = 'FCX1.';
+const KEY_STORAGE = 'provenance_key';
+
+const STAGES = ['FARMER', 'DISTRIBUTOR', 'RETAILER', 'CONSUMER'];
+const SIGNATURE_LENGTH = 64;
+
+export interface ProvenanceHop {
+  stage: string;
+  id: number;
+  date: string | null;
+  holder: string;
+}
+
+export interface ProvenanceToken {
+  keyId: string;
+  issuedAt: Date;
+  name: string;
+  cropType: string;
+  farmerId: string;
+  farmerLocation: string;
+  harvestDate: string | null;
+  expiryDate: string | null;
+  hops: ProvenanceHop[];
+  body: Uint8Array;
+  signature: Uint8Array;
+}
+
+// What a scanned label says about a lot, however it was read
+export interface ScanLabel {
+  name: string;
+  cropType: string;
+  farmerId: string;
+  farmerLocation: string;
+  harvestDate: string | null;
+  expiryDate: string | null;
+  hops: ProvenanceHop[];
+  // True when read from a token whose signature checked out, false when looked up on the backend
+  verified: boolean;
+}
+
+export const isProvenanceToken = (payload: string) => payload.startsWith(TOKEN_PREFIX);
+
+const fromBase64Url = (value: string) => {
+  const base64 = value.replace(/-/g, '+').replace(/_/g, '/');
+  const binary = atob(base64 + '='.repeat((4 - (base64.length % 4)) % 4));
+  return Uint8Array.from(binary, (c) => c.charCodeAt(0));
+};
+
+export const decodeProvenanceToken = (payload: string): ProvenanceToken => {
+  const bytes = fromBase64Url(payload.slice(TOKEN_PREFIX.length));
+  const body = bytes.subarray(0, bytes.length - SIGNATURE_LENGTH);
+  const view = new DataView(body.buffer, body.byteOffset, body.byteLength);
+  const decoder = new TextDecoder();
+  let offset = 0;
+
+  const u8 = () => view.getUint8(offset++);
+  const string = () => {
+    const length = u8();
+    const value = decoder.decode(body.subarray(offset, offset + length));
+    offset += length;
+    return value;
+  };
+  const day = () => {
+    const days = view.getUint16(offset);
+    offset += 2;
+    return days ? new Date(days * 86400000).toISOString().slice(0, 10) : null;
+  };
+
+  if (u8() !== 1) {
+    throw new Error('Unsupported provenance token format');
+  }
+  const keyId = Array.from(body.subarray(offset, offset + 4), (b) => b.toString(16).padStart(2, '0')).join('');
+  offset += 4;
+  const issuedAt = new Date(view.getUint32(offset) * 1000);
+  offset += 4;
+
+  const name = string();
+  const cropType = string();
+  const farmerId = string();
+  const farmerLocation = string();
+  const harvestDate = day();
+  const expiryDate = day();
+
+  const hops: ProvenanceHop[] = [];
+  for (let count = u8(); count > 0; count--) {
+    const stage = STAGES[u8()];
+    const id = Number(view.getBigInt64(offset));
+    offset += 8;
+    hops.push({ stage, id, date: day(), holder: string() });
+  }
+
+  return {
+    keyId, issuedAt, name, cropType, farmerId, farmerLocation, harvestDate, expiryDate, hops,
+    body, signature: bytes.subarray(bytes.length - SIGNATURE_LENGTH)
+  };
+};
+
+// publicKey is the base64 SubjectPublicKeyInfo from /crops/provenance-key; works offline once it is stored
+export const verifyProvenanceToken = async (token: ProvenanceToken, publicKey: string): Promise<boolean> => {
+  const spki = Uint8Array.from(atob(publicKey), (c) => c.charCodeAt(0));
+  const key = await crypto.subtle.importKey('spki', spki, { name: 'Ed25519' }, false, ['verify']);
+  return crypto.subtle.verify({ name: 'Ed25519' }, key, token.signature, token.body);
+};
+
+// Kept in localStorage so labels verify offline; fetched again only when a token names a key we do not hold
+export const loadProvenanceKey = async (keyId: string): Promise<string | null> => {
+  const cached = localStorage.getItem(KEY_STORAGE);
+  if (cached) {
+    const key = JSON.parse(cached);
+    if (key.keyId === keyId) {
+      return key.publicKey;
+    }
+  }
+  const result = await apiService.getProvenanceKey();
+  if (!result.data) {
+    return null;
+  }
+  localStorage.setItem(KEY_STORAGE, JSON.stringify(result.data));
+  return result.data.keyId === keyId ? result.data.publicKey : null;
+};
+
+export const labelFromToken = (token: ProvenanceToken): ScanLabel => ({
+  name: token.name,
+  cropType: token.cropType,
+  farmerId: token.farmerId,
+  farmerLocation: token.farmerLocation,
+  harvestDate: token.harvestDate,
+  expiryDate: token.expiryDate,
+  hops: token.hops,
+  verified: true
+});
+
+// Same date and holder the backend signs for a hop; consumers are never named
+const hopFromRecord = (stage: string, id: number, record: any | null): ProvenanceHop => {
+  const dates: Record<string, string | undefined> = {
+    FARMER: record?.harvestDate,
+    DISTRIBUTOR: record?.distributorReceivedDate,
+    RETAILER: record?.retailerReceivedDate,
+    CONSUMER: record?.purchaseDate
+  };
+  const holders: Record<string, string | undefined> = {
+    FARMER: record?.farmerName,
+    DISTRIBUTOR: record?.distributorName,
+    RETAILER: record?.retailerName
+  };
+  return { stage, id, date: dates[stage] || null, holder: holders[stage] || '' };
+};
+
+// Mirrors a token: the chain up to and including the scanned record
+export const labelFromTrace = (trace: ScanTrace): ScanLabel => {
+  const self = trace.chain.findIndex((step) => step.stage === trace.stage && step.id === trace.id);
+  const record = trace.chain[self].record;
+  return {
+    name: record.name || '',
+    cropType: record.cropType || '',
+    farmerId: record.farmerId || '',
+    farmerLocation: record.farmerLocation || '',
+    harvestDate: record.harvestDate || null,
+    expiryDate: record.expiryDate || null,
+    hops: trace.chain.slice(0, self + 1).map((step) => hopFromRecord(step.stage, step.id, step.record)),
+    verified: false
+  };
+};
@@ -22,6 +22,7 @@ export interface Crop {
   image_url?: string;
   user_id: string;
   created_at: string;
+  version?: number;
   // Supply chain tracking
   farmer_info?: {
     farmer_id: string;
@@ -44,6 +45,13 @@ export interface Crop {
   };
 }
 
+// Custody chain returned by /crops/scan, farm first; record holds the backend's stage fields
+export interface ScanTrace {
+  stage: string;
+  id: number;
+  chain: Array<{ stage: string; id: number; record: any | null }>;
+}
+
 export interface SupplyChainEntry {
   id: string;
   crop_id: string;